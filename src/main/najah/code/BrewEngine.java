@@ -0,0 +1,110 @@
+package main.najah.code;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brews recipes from an Inventory. Safe to call from any number of order
+ * threads; the engine keeps contention-free counters of accepted and
+ * rejected brews and of the time spent on each, so throughput and
+ * rejection latency can be read while it runs.
+ */
+public class BrewEngine {
+
+	private final Inventory inventory;
+	private final LongAdder brewed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder brewNanos = new LongAdder();
+	private final LongAdder rejectNanos = new LongAdder();
+
+	/**
+	 * Creates an engine brewing from the given inventory.
+	 * @param inventory
+	 */
+	public BrewEngine(Inventory inventory) {
+		if (inventory == null) {
+			throw new IllegalArgumentException("Inventory must not be null");
+		}
+		this.inventory = inventory;
+	}
+
+	/**
+	 * @return   Returns the inventory brewed from.
+	 */
+	public Inventory getInventory() {
+		return inventory;
+	}
+
+	/**
+	 * Takes the ingredients of the recipe from the inventory. Returns
+	 * false if the stock is short, in which case nothing is taken.
+	 * @param r
+	 * @return boolean
+	 */
+	public boolean brew(Recipe r) {
+		long start = System.nanoTime();
+		boolean ok = inventory.useIngredients(r);
+		long elapsed = System.nanoTime() - start;
+		if (ok) {
+			brewed.increment();
+			brewNanos.add(elapsed);
+		} else {
+			rejected.increment();
+			rejectNanos.add(elapsed);
+		}
+		return ok;
+	}
+
+	/**
+	 * Brews the recipe if the amount paid covers its price and returns
+	 * the change. Returns the full amount if the recipe cannot be brewed.
+	 * @param r
+	 * @param amtPaid
+	 * @return int
+	 */
+	public int makeCoffee(Recipe r, int amtPaid) {
+		if (r == null || amtPaid < r.getPrice() || !brew(r)) {
+			return amtPaid;
+		}
+		return amtPaid - r.getPrice();
+	}
+
+	/**
+	 * @return   Returns the number of successful brews.
+	 */
+	public long getBrewed() {
+		return brewed.sum();
+	}
+
+	/**
+	 * @return   Returns the number of brews rejected for short stock.
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return   Returns the mean time of a successful brew in nanoseconds.
+	 */
+	public double getMeanBrewNanos() {
+		long n = brewed.sum();
+		return n == 0 ? 0 : (double) brewNanos.sum() / n;
+	}
+
+	/**
+	 * @return   Returns the mean time of a rejected brew in nanoseconds.
+	 */
+	public double getMeanRejectNanos() {
+		long n = rejected.sum();
+		return n == 0 ? 0 : (double) rejectNanos.sum() / n;
+	}
+
+	/**
+	 * Clears the counters, for example between measurement runs.
+	 */
+	public void resetStatistics() {
+		brewed.reset();
+		rejected.reset();
+		brewNanos.reset();
+		rejectNanos.reset();
+	}
+}
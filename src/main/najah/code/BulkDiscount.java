@@ -0,0 +1,66 @@
+package main.najah.code;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies campaign discounts to whole product sets in parallel. The
+ * percentages are validated once per batch with the rule of
+ * Product.applyDiscount, so a bad campaign is rejected before any product
+ * changes. Each method returns the number of products whose discount
+ * changed.
+ *
+ * Products are updated on the common fork/join pool; the caller sees
+ * every update once the method returns. Products in the set must not be
+ * modified concurrently by other threads while a campaign is applied.
+ */
+public final class BulkDiscount {
+
+    private BulkDiscount() {
+    }
+
+    /**
+     * Gives every product the same discount.
+     * @param products
+     * @param discountPercentage
+     * @return int
+     */
+    public static int apply(Collection<Product> products, double discountPercentage) {
+        ProductCatalog.checkDiscount(discountPercentage);
+        return (int) products.parallelStream().filter(p -> p.setCheckedDiscount(discountPercentage)).count();
+    }
+
+    /**
+     * Gives every product the discount of its category; products whose
+     * category has no discount are left as they are.
+     * @param products
+     * @param discountByCategory
+     * @return int
+     */
+    public static int apply(Collection<Product> products, Map<String, Double> discountByCategory) {
+        //Copied so that the validated values are the ones applied
+        final Map<String, Double> discounts = new HashMap<String, Double>(discountByCategory);
+        for (Double d : discounts.values()) {
+            if (d == null) {
+                throw new IllegalArgumentException("Invalid discount");
+            }
+            ProductCatalog.checkDiscount(d);
+        }
+        return (int) products.parallelStream().filter(p -> {
+            Double d = discounts.get(p.getCategory());
+            return d != null && p.setCheckedDiscount(d);
+        }).count();
+    }
+
+    /**
+     * Gives every product of the catalog the same discount.
+     * @param catalog
+     * @param discountPercentage
+     * @return int
+     */
+    public static int apply(ProductCatalog catalog, double discountPercentage) {
+        ProductCatalog.checkDiscount(discountPercentage);
+        return catalog.setCheckedDiscounts(discountPercentage);
+    }
+}
@@ -1,7 +1,20 @@
 package main.najah.code;
 
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
 public class Calculator {
 
+    /** Independent partial sums kept by the range adds, so the JIT can unroll and vectorize the loop */
+    private static final int LANES = 4;
+    /** Default number of elements below which the parallel methods stop splitting */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 15;
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
     // إضافة دالة add
     public int add(int... numbers) {
         int sum = 0;
@@ -11,6 +24,385 @@ public class Calculator {
         return sum;
     }
 
+    // إضافة دالة add لمدى من مصفوفة int
+    /**
+     * Returns the sum of a[from..to) as a long. The sum of any int array
+     * fits in a long, so unlike add(int...) it never overflows.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long add(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        return sum(a, from, to);
+    }
+
+    // إضافة دالة add لمدى من مصفوفة long
+    /**
+     * Returns the sum of a[from..to), or throws ArithmeticException if the
+     * exact sum does not fit in a long. Partial sums may wrap along the
+     * way as long as the total fits.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long add(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        long[] carry = new long[1];
+        return exact(sum(a, from, to, carry), carry[0]);
+    }
+
+    // إضافة دالة add المتوازية
+    /**
+     * Returns the same sum as add(int[], int, int), splitting the range
+     * over the common fork/join pool.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long parallelAdd(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        return new IntSumTask(a, from, to, parallelThreshold).invoke();
+    }
+
+    /**
+     * Returns the same sum as add(long[], int, int), splitting the range
+     * over the common fork/join pool. Overflow is decided on the exact
+     * total, so the result does not depend on how the range is split.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long parallelAdd(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        LongSumTask task = new LongSumTask(a, from, to, parallelThreshold);
+        return exact(task.invoke(), task.carry);
+    }
+
+    /**
+     * Returns the sum of a parallel IntStream as a long.
+     * @param numbers
+     * @return long
+     */
+    public long parallelAdd(IntStream numbers) {
+        return numbers.parallel().asLongStream().sum();
+    }
+
+    /**
+     * Returns the sum of a parallel LongStream, or throws
+     * ArithmeticException if the exact sum does not fit in a long.
+     * @param numbers
+     * @return long
+     */
+    public long parallelAdd(LongStream numbers) {
+        //{sum, carry}
+        long[] total = numbers.parallel().collect(() -> new long[2], (acc, x) -> {
+            long r = acc[0] + x;
+            acc[1] += wraps(acc[0], x, r);
+            acc[0] = r;
+        }, (acc, other) -> {
+            long r = acc[0] + other[0];
+            acc[1] += other[1] + wraps(acc[0], other[0], r);
+            acc[0] = r;
+        });
+        return exact(total[0], total[1]);
+    }
+
+    // إضافة دالة multiply لمدى من مصفوفة
+    /**
+     * Returns the product of a[from..to), or throws ArithmeticException if
+     * the exact product does not fit in a long. A zero anywhere in the
+     * range makes the product 0 even if the elements before it overflow.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long multiply(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        return product(a, from, to).value();
+    }
+
+    /**
+     * Returns the same product as multiply(long[], int, int), splitting
+     * the range over the common fork/join pool.
+     * @param a
+     * @param from
+     * @param to
+     * @return long
+     */
+    public long parallelMultiply(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        return new ProductTask(a, from, to, parallelThreshold).invoke().value();
+    }
+
+    /**
+     * Returns the product of a parallel LongStream with the same overflow
+     * rules as multiply(long[], int, int).
+     * @param numbers
+     * @return long
+     */
+    public long parallelMultiply(LongStream numbers) {
+        return numbers.parallel()
+                .collect(RunningProduct::new, RunningProduct::multiply, RunningProduct::multiply).value();
+    }
+
+    /**
+     * Returns the product of a parallel IntStream with the same overflow
+     * rules as multiply(long[], int, int).
+     * @param numbers
+     * @return long
+     */
+    public long parallelMultiply(IntStream numbers) {
+        return parallelMultiply(numbers.asLongStream());
+    }
+
+    /**
+     * @return   Returns the number of elements below which the parallel
+     *           methods stop splitting a range.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * @param parallelThreshold   The number of elements below which the
+     *                            parallel methods stop splitting a range.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    private static long sum(int[] a, int from, int to) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (int end = to - LANES + 1; i < end; i += LANES) {
+            s0 += a[i];
+            s1 += a[i + 1];
+            s2 += a[i + 2];
+            s3 += a[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += a[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    /**
+     * Returns the wrapped sum of the range and adds the net number of
+     * wraps to carry[0].
+     */
+    private static long sum(long[] a, int from, int to, long[] carry) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        //Net number of times each partial sum wrapped past MAX_VALUE (+1) or MIN_VALUE (-1)
+        long c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int i = from;
+        for (int end = to - LANES + 1; i < end; i += LANES) {
+            long x0 = a[i], x1 = a[i + 1], x2 = a[i + 2], x3 = a[i + 3];
+            long r0 = s0 + x0, r1 = s1 + x1, r2 = s2 + x2, r3 = s3 + x3;
+            c0 += wraps(s0, x0, r0);
+            c1 += wraps(s1, x1, r1);
+            c2 += wraps(s2, x2, r2);
+            c3 += wraps(s3, x3, r3);
+            s0 = r0;
+            s1 = r1;
+            s2 = r2;
+            s3 = r3;
+        }
+        for (; i < to; i++) {
+            long r0 = s0 + a[i];
+            c0 += wraps(s0, a[i], r0);
+            s0 = r0;
+        }
+        long sum = s0 + s1;
+        long wrapped = c0 + c1 + c2 + c3 + wraps(s0, s1, sum);
+        long r = sum + s2;
+        wrapped += wraps(sum, s2, r);
+        sum = r + s3;
+        wrapped += wraps(r, s3, sum);
+        carry[0] += wrapped;
+        return sum;
+    }
+
+    /**
+     * Returns 1 if s + x wrapped to r past MAX_VALUE, -1 if it wrapped past
+     * MIN_VALUE and 0 otherwise, without branching.
+     */
+    private static long wraps(long s, long x, long r) {
+        return (((s ^ r) & (x ^ r)) >>> 63) * ((x >> 63) | 1);
+    }
+
+    /**
+     * The exact total is sum + carry * 2^64, which fits only when carry is 0.
+     */
+    private static long exact(long sum, long carry) {
+        if (carry != 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return sum;
+    }
+
+    private static RunningProduct product(long[] a, int from, int to) {
+        RunningProduct p = new RunningProduct();
+        for (int i = from; i < to; i++) {
+            p.multiply(a[i]);
+            if (p.zero) {
+                break;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Running product kept as a sign and an unsigned magnitude of at most
+     * 2^63. It remembers an overflow instead of throwing, so the result
+     * does not depend on the order of the factors: a later zero still
+     * makes it 0, and MIN_VALUE is reached through any order.
+     */
+    private static final class RunningProduct {
+        long magnitude = 1;
+        boolean negative;
+        boolean zero;
+        boolean overflow;
+
+        void multiply(long x) {
+            if (x == 0) {
+                zero = true;
+            } else if (!overflow) {
+                negative ^= x < 0;
+                //-MIN_VALUE wraps to MIN_VALUE, which is 2^63 read as unsigned
+                scale(x < 0 ? -x : x);
+            }
+        }
+
+        void multiply(RunningProduct other) {
+            if (other.zero) {
+                zero = true;
+            } else if (other.overflow) {
+                overflow = true;
+            } else if (!overflow) {
+                negative ^= other.negative;
+                scale(other.magnitude);
+            }
+        }
+
+        private void scale(long m) {
+            //Factors below 2^31 cannot pass 2^63; only larger ones need the division
+            if (((magnitude | m) >>> 31) != 0
+                    && Long.compareUnsigned(magnitude, Long.divideUnsigned(Long.MIN_VALUE, m)) > 0) {
+                overflow = true;
+            } else {
+                magnitude *= m;
+            }
+        }
+
+        long value() {
+            if (zero) {
+                return 0;
+            }
+            if (overflow || (!negative && magnitude < 0)) {
+                throw new ArithmeticException("long overflow");
+            }
+            return negative ? -magnitude : magnitude;
+        }
+    }
+
+    private static final class IntSumTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final int[] a;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        IntSumTask(int[] a, int from, int to, int threshold) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        protected Long compute() {
+            if (to - from <= threshold) {
+                return sum(a, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            IntSumTask left = new IntSumTask(a, from, mid, threshold);
+            left.fork();
+            long right = new IntSumTask(a, mid, to, threshold).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static final class LongSumTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final long[] a;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        /** Net wraps of the returned sum, set by compute() */
+        long carry;
+
+        LongSumTask(long[] a, int from, int to, int threshold) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        protected Long compute() {
+            if (to - from <= threshold) {
+                long[] wrapped = new long[1];
+                long s = sum(a, from, to, wrapped);
+                carry = wrapped[0];
+                return s;
+            }
+            int mid = (from + to) >>> 1;
+            LongSumTask left = new LongSumTask(a, from, mid, threshold);
+            LongSumTask right = new LongSumTask(a, mid, to, threshold);
+            left.fork();
+            long r = right.compute();
+            long l = left.join();
+            long s = l + r;
+            carry = left.carry + right.carry + wraps(l, r, s);
+            return s;
+        }
+    }
+
+    private static final class ProductTask extends RecursiveTask<RunningProduct> {
+        private static final long serialVersionUID = 1L;
+        private final long[] a;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ProductTask(long[] a, int from, int to, int threshold) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        protected RunningProduct compute() {
+            if (to - from <= threshold) {
+                return product(a, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ProductTask left = new ProductTask(a, from, mid, threshold);
+            left.fork();
+            RunningProduct p = new ProductTask(a, mid, to, threshold).compute();
+            RunningProduct l = left.join();
+            l.multiply(p);
+            return l;
+        }
+    }
+
     // إضافة دالة divide
     public int divide(int a, int b) {
         if (b == 0) {
@@ -29,10 +421,160 @@ public class Calculator {
         if (n < 0) {
             throw new IllegalArgumentException("Cannot calculate factorial of negative number");
         }
-        long result = 1;
-        for (int i = 1; i <= n; i++) {
+        if (n <= FactorialService.MAX_LONG_FACTORIAL) {
+            return FactorialService.smallFactorial(n);
+        }
+        //Past 20! the result wraps, as it always has; FactorialService gives the exact value
+        long result = FactorialService.smallFactorial(FactorialService.MAX_LONG_FACTORIAL);
+        for (int i = FactorialService.MAX_LONG_FACTORIAL + 1; i <= n; i++) {
             result *= i;
         }
         return result;
     }
+
+    // إضافة دوال add و multiply و factorial مع نمط الفيض
+    /**
+     * Returns a + b, handling an int overflow as the mode says.
+     * @param a
+     * @param b
+     * @param mode
+     * @return long
+     */
+    public long add(int a, int b, OverflowMode mode) {
+        return narrow((long) a + b, mode);
+    }
+
+    /**
+     * Returns a * b, handling an int overflow as the mode says.
+     * @param a
+     * @param b
+     * @param mode
+     * @return long
+     */
+    public long multiply(int a, int b, OverflowMode mode) {
+        return narrow((long) a * b, mode);
+    }
+
+    /**
+     * Returns n!, handling a long overflow as the mode says: WRAP is
+     * factorial(int), SATURATE gives Long.MAX_VALUE and EXACT and WIDEN
+     * throw ArithmeticException, since no wider primitive exists.
+     * @param n
+     * @param mode
+     * @return long
+     */
+    public long factorial(int n, OverflowMode mode) {
+        if (mode == OverflowMode.WRAP || n <= FactorialService.MAX_LONG_FACTORIAL) {
+            return factorial(n);
+        }
+        if (mode == OverflowMode.SATURATE) {
+            return Long.MAX_VALUE;
+        }
+        throw new ArithmeticException("long overflow");
+    }
+
+    // إضافة دوال multiply و divide للمصفوفات
+    /**
+     * Stores a[i] * b[i] in out[i] for every element of a. Elements that
+     * overflow in EXACT mode are set to 0 and flagged in errors instead of
+     * throwing; errors is cleared for the other elements. Returns the
+     * number of flagged elements.
+     * @param a
+     * @param b
+     * @param out
+     * @param errors
+     * @param mode
+     * @return int
+     */
+    public int multiply(int[] a, int[] b, long[] out, BitSet errors, OverflowMode mode) {
+        int n = checkBatch(a, b, out);
+        errors.clear(0, n);
+        for (int i = 0; i < n; i++) {
+            out[i] = (long) a[i] * b[i];
+        }
+        return narrow(out, n, errors, mode);
+    }
+
+    /**
+     * Stores a[i] / b[i] in out[i] for every element of a. Division by
+     * zero, and Integer.MIN_VALUE / -1 in EXACT mode, set the element to
+     * 0 and flag it in errors instead of throwing; errors is cleared for
+     * the other elements. Returns the number of flagged elements.
+     * @param a
+     * @param b
+     * @param out
+     * @param errors
+     * @param mode
+     * @return int
+     */
+    public int divide(int[] a, int[] b, long[] out, BitSet errors, OverflowMode mode) {
+        int n = checkBatch(a, b, out);
+        errors.clear(0, n);
+        int failed = 0;
+        for (int i = 0; i < n; i++) {
+            if (b[i] == 0) {
+                out[i] = 0;
+                errors.set(i);
+                failed++;
+            } else {
+                out[i] = (long) a[i] / b[i];
+            }
+        }
+        return failed + narrow(out, n, errors, mode);
+    }
+
+    private static int checkBatch(int[] a, int[] b, long[] out) {
+        if (b.length < a.length || out.length < a.length) {
+            throw new IllegalArgumentException("Operand and result arrays must be at least as long as the first operand");
+        }
+        return a.length;
+    }
+
+    private static long narrow(long value, OverflowMode mode) {
+        switch (mode) {
+        case WRAP:
+            return (int) value;
+        case EXACT:
+            if (value != (int) value) {
+                throw new ArithmeticException("integer overflow");
+            }
+            return value;
+        case SATURATE:
+            return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+        default:
+            return value;
+        }
+    }
+
+    /**
+     * Applies the mode to out[0..n), one tight loop per mode. Elements
+     * already flagged are 0 and pass through unchanged.
+     */
+    private static int narrow(long[] out, int n, BitSet errors, OverflowMode mode) {
+        int failed = 0;
+        switch (mode) {
+        case WRAP:
+            for (int i = 0; i < n; i++) {
+                out[i] = (int) out[i];
+            }
+            break;
+        case EXACT:
+            for (int i = 0; i < n; i++) {
+                if (out[i] != (int) out[i]) {
+                    out[i] = 0;
+                    errors.set(i);
+                    failed++;
+                }
+            }
+            break;
+        case SATURATE:
+            for (int i = 0; i < n; i++) {
+                out[i] = Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, out[i]));
+            }
+            break;
+        default:
+            break;
+        }
+        return failed;
+    }
 }
@@ -0,0 +1,171 @@
+package main.najah.code;
+
+import java.math.BigInteger;
+
+/**
+ * nCr and nPr modulo a prime p for every n up to a fixed maximum. The
+ * factorials and their inverses modulo p are tabled once, so each query
+ * is two or three multiplications instead of a factorial loop.
+ */
+public class Combinatorics {
+
+    public static final int DEFAULT_MODULUS = 1000000007;
+
+    private final int maxN;
+    private final long p;
+    private final int[] fact;
+    private final int[] invFact;
+
+    /**
+     * Creates tables for n up to maxN modulo DEFAULT_MODULUS.
+     * @param maxN
+     */
+    public Combinatorics(int maxN) {
+        this(maxN, DEFAULT_MODULUS);
+    }
+
+    /**
+     * Creates tables for n up to maxN modulo the prime p. maxN must be
+     * below p so that every tabled factorial has an inverse.
+     * @param maxN
+     * @param p
+     */
+    public Combinatorics(int maxN, int p) {
+        if (p < 2 || !BigInteger.valueOf(p).isProbablePrime(30)) {
+            throw new IllegalArgumentException("Modulus must be a prime");
+        }
+        if (maxN < 0 || maxN >= p) {
+            throw new IllegalArgumentException("Maximum n must be non-negative and below the modulus");
+        }
+        this.maxN = maxN;
+        this.p = p;
+        this.fact = new int[maxN + 1];
+        this.invFact = new int[maxN + 1];
+        fact[0] = 1;
+        for (int i = 1; i <= maxN; i++) {
+            fact[i] = (int) (fact[i - 1] * (long) i % p);
+        }
+        //One modular exponentiation, then (i-1)!^-1 = i!^-1 * i
+        invFact[maxN] = (int) pow(fact[maxN], p - 2, p);
+        for (int i = maxN; i > 0; i--) {
+            invFact[i - 1] = (int) (invFact[i] * (long) i % p);
+        }
+    }
+
+    /**
+     * @return   Returns the largest n the tables cover.
+     */
+    public int getMaxN() {
+        return maxN;
+    }
+
+    /**
+     * @return   Returns the modulus.
+     */
+    public int getModulus() {
+        return (int) p;
+    }
+
+    /**
+     * Returns n! modulo p.
+     * @param n
+     * @return int
+     */
+    public int factorial(int n) {
+        checkN(n);
+        return fact[n];
+    }
+
+    /**
+     * Returns the number of ways to choose k of n items modulo p, and 0
+     * if k is negative or larger than n.
+     * @param n
+     * @param k
+     * @return int
+     */
+    public int nCr(int n, int k) {
+        checkN(n);
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        return (int) (fact[n] * (long) invFact[k] % p * invFact[n - k] % p);
+    }
+
+    /**
+     * Returns the number of ordered selections of k of n items modulo p,
+     * and 0 if k is negative or larger than n.
+     * @param n
+     * @param k
+     * @return int
+     */
+    public int nPr(int n, int k) {
+        checkN(n);
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        return (int) (fact[n] * (long) invFact[n - k] % p);
+    }
+
+    /**
+     * Stores nCr(n[i], k[i]) in out[i] for every query.
+     * @param n
+     * @param k
+     * @param out
+     */
+    public void nCr(int[] n, int[] k, int[] out) {
+        checkBatch(n, k, out);
+        int[] fact = this.fact;
+        int[] invFact = this.invFact;
+        long p = this.p;
+        for (int i = 0; i < n.length; i++) {
+            int ni = n[i];
+            int ki = k[i];
+            checkN(ni);
+            out[i] = ki < 0 || ki > ni ? 0 : (int) (fact[ni] * (long) invFact[ki] % p * invFact[ni - ki] % p);
+        }
+    }
+
+    /**
+     * Stores nPr(n[i], k[i]) in out[i] for every query.
+     * @param n
+     * @param k
+     * @param out
+     */
+    public void nPr(int[] n, int[] k, int[] out) {
+        checkBatch(n, k, out);
+        int[] fact = this.fact;
+        int[] invFact = this.invFact;
+        long p = this.p;
+        for (int i = 0; i < n.length; i++) {
+            int ni = n[i];
+            int ki = k[i];
+            checkN(ni);
+            out[i] = ki < 0 || ki > ni ? 0 : (int) (fact[ni] * (long) invFact[ni - ki] % p);
+        }
+    }
+
+    private void checkN(int n) {
+        if (n < 0 || n > maxN) {
+            throw new IllegalArgumentException("n must be between 0 and " + maxN);
+        }
+    }
+
+    private static void checkBatch(int[] n, int[] k, int[] out) {
+        if (k.length != n.length || out.length < n.length) {
+            throw new IllegalArgumentException("Query arrays must have the same length and fit in the result array");
+        }
+    }
+
+    private static long pow(long base, long exponent, long p) {
+        long result = 1;
+        base %= p;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = result * base % p;
+            }
+            base = base * base % p;
+            exponent >>= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package main.najah.code;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * A formula compiled by ExpressionEngine. It is immutable and can be
+ * evaluated from any number of threads; evaluation does not allocate.
+ */
+public final class CompiledExpression {
+
+    private final String formula;
+    private final List<String> variables;
+    private final ToLongFunction<long[]> body;
+    private final boolean constant;
+
+    CompiledExpression(String formula, String[] variables, ToLongFunction<long[]> body, boolean constant) {
+        this.formula = formula;
+        this.variables = Collections.unmodifiableList(Arrays.asList(variables));
+        this.body = body;
+        this.constant = constant;
+    }
+
+    /**
+     * Evaluates the formula with values[i] bound to the i-th variable of
+     * getVariables().
+     * @param values
+     * @return long
+     */
+    public long evaluate(long[] values) {
+        if (values.length < variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " values, got " + values.length);
+        }
+        return body.applyAsLong(values);
+    }
+
+    /**
+     * Returns the variable names in order of first appearance.
+     * @return List
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the position of the variable in the values array, or -1.
+     * @param name
+     * @return int
+     */
+    public int indexOf(String name) {
+        return variables.indexOf(name);
+    }
+
+    /**
+     * @return   Returns true if constant folding reduced the formula to a single value.
+     */
+    public boolean isConstant() {
+        return constant;
+    }
+
+    /**
+     * @return   Returns the formula text.
+     */
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * Returns the formula text.
+     * @return String
+     */
+    public String toString() {
+        return formula;
+    }
+}
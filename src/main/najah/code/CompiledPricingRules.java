@@ -0,0 +1,175 @@
+package main.najah.code;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pricing rules compiled by PricingRules. Tiers become a sorted array of
+ * thresholds searched by binary search. Category rules become one
+ * discount and one limit per category, resolved once per catalog pass
+ * into arrays indexed by the catalog's category ids. Pricing a row then
+ * costs a search over the tiers, two array reads and a min, whatever
+ * the number of rules.
+ *
+ * Immutable, so it can be used from any number of threads.
+ */
+public final class CompiledPricingRules {
+
+    private final double[] thresholds;
+    private final double[] tierDiscounts;
+    private final Map<String, Double> categoryDiscounts;
+    private final Map<String, Double> categoryLimits;
+    private final double maxDiscount;
+
+    CompiledPricingRules(double[] thresholds, double[] tierDiscounts, Map<String, Double> categoryDiscounts,
+            Map<String, Double> categoryCaps, double maxDiscount) {
+        this.thresholds = thresholds;
+        this.tierDiscounts = tierDiscounts;
+        this.categoryDiscounts = new HashMap<String, Double>(categoryDiscounts);
+        this.categoryLimits = new HashMap<String, Double>();
+        for (Map.Entry<String, Double> cap : categoryCaps.entrySet()) {
+            categoryLimits.put(cap.getKey(), Math.min(cap.getValue(), maxDiscount));
+        }
+        this.maxDiscount = maxDiscount;
+    }
+
+    /**
+     * Returns the discount the rules give a product with this price and
+     * category.
+     * @param price
+     * @param category
+     * @return double
+     */
+    public double getDiscount(double price, String category) {
+        return Math.min(tierDiscount(price) + categoryDiscount(category), categoryLimit(category));
+    }
+
+    public double getDiscount(Product p) {
+        return getDiscount(p.getPrice(), p.getCategory());
+    }
+
+    /**
+     * Returns the final price of the product under the rules, with the
+     * formula of Product.getFinalPrice.
+     * @param p
+     * @return double
+     */
+    public double getFinalPrice(Product p) {
+        return p.getPrice() * (1 - getDiscount(p) / 100);
+    }
+
+    /**
+     * Stores the discount the rules give every row in out[row].
+     * @param catalog
+     * @param out
+     */
+    public void getDiscounts(ProductCatalog catalog, double[] out) {
+        int size = catalog.size();
+        Objects.checkFromIndexSize(0, size, out.length);
+        double[] extra = new double[catalog.categoryCount()];
+        double[] limit = new double[extra.length];
+        resolve(catalog, extra, limit);
+        double[] prices = catalog.priceColumn();
+        int[] categories = catalog.categoryColumn();
+        for (int row = 0; row < size; row++) {
+            int c = categories[row];
+            out[row] = Math.min(tierDiscount(prices[row]) + extra[c], limit[c]);
+        }
+    }
+
+    /**
+     * Stores the final price the rules give every row in out[row].
+     * @param catalog
+     * @param out
+     */
+    public void getFinalPrices(ProductCatalog catalog, double[] out) {
+        getFinalPrices(catalog, 0, catalog.size(), out, 0);
+    }
+
+    /**
+     * Stores the final prices of rows [from, to) in out, starting at offset.
+     * @param catalog
+     * @param from
+     * @param to
+     * @param out
+     * @param offset
+     */
+    public void getFinalPrices(ProductCatalog catalog, int from, int to, double[] out, int offset) {
+        Objects.checkFromToIndex(from, to, catalog.size());
+        Objects.checkFromIndexSize(offset, to - from, out.length);
+        double[] extra = new double[catalog.categoryCount()];
+        double[] limit = new double[extra.length];
+        resolve(catalog, extra, limit);
+        double[] prices = catalog.priceColumn();
+        int[] categories = catalog.categoryColumn();
+        for (int i = from, j = offset; i < to; i++, j++) {
+            int c = categories[i];
+            double price = prices[i];
+            out[j] = price * (1 - Math.min(tierDiscount(price) + extra[c], limit[c]) / 100);
+        }
+    }
+
+    /**
+     * Sets the discount of every row to the one the rules give it and
+     * returns the number of rows that changed.
+     * @param catalog
+     * @return int
+     */
+    public int apply(ProductCatalog catalog) {
+        double[] discounts = new double[catalog.size()];
+        getDiscounts(catalog, discounts);
+        double[] column = catalog.discountColumn();
+        int changed = 0;
+        for (int row = 0; row < discounts.length; row++) {
+            if (Double.compare(column[row], discounts[row]) != 0) {
+                column[row] = discounts[row];
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return   Returns the largest total discount.
+     */
+    public double getMaxDiscount() {
+        return maxDiscount;
+    }
+
+    private void resolve(ProductCatalog catalog, double[] extra, double[] limit) {
+        for (int id = 0; id < extra.length; id++) {
+            String category = catalog.categoryName(id);
+            extra[id] = categoryDiscount(category);
+            limit[id] = categoryLimit(category);
+        }
+    }
+
+    /**
+     * Returns the discount of the tier with the highest threshold below
+     * the price, or 0.
+     */
+    private double tierDiscount(double price) {
+        int lo = 0;
+        int hi = thresholds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (thresholds[mid] < price) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo == 0 ? 0 : tierDiscounts[lo - 1];
+    }
+
+    private double categoryDiscount(String category) {
+        Double d = categoryDiscounts.get(category);
+        return d == null ? 0 : d;
+    }
+
+    private double categoryLimit(String category) {
+        Double limit = categoryLimits.get(category);
+        return limit == null ? maxDiscount : limit;
+    }
+}
@@ -0,0 +1,325 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compiles formulas over the Calculator operations into reusable
+ * evaluators. A formula is parsed once into a tree of lambdas, with every
+ * subexpression that has no variables folded into a constant; compiled
+ * formulas are cached by their text.
+ *
+ * Formulas use integers, variables, + - * / with the usual precedence,
+ * unary minus, postfix ! and the functions add(a, b, ...),
+ * multiply(a, b, ...), divide(a, b) and factorial(n). Arithmetic is on
+ * longs and throws ArithmeticException on overflow instead of wrapping;
+ * division by zero throws like Calculator.divide.
+ */
+public class ExpressionEngine {
+
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final LongBinaryOperator ADD = Math::addExact;
+    private static final LongBinaryOperator SUBTRACT = Math::subtractExact;
+    private static final LongBinaryOperator MULTIPLY = Math::multiplyExact;
+    private static final LongBinaryOperator DIVIDE = ExpressionEngine::divide;
+
+    private final Map<String, CompiledExpression> cache;
+
+    public ExpressionEngine() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates an engine that caches up to cacheSize compiled formulas.
+     * @param cacheSize
+     */
+    public ExpressionEngine(final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must be non-negative");
+        }
+        this.cache = new LinkedHashMap<String, CompiledExpression>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled form of the formula, from the cache if it was
+     * compiled before. Throws IllegalArgumentException if it does not parse.
+     * @param formula
+     * @return CompiledExpression
+     */
+    public CompiledExpression compile(String formula) {
+        CompiledExpression compiled;
+        synchronized (cache) {
+            compiled = cache.get(formula);
+        }
+        if (compiled == null) {
+            compiled = new Parser(formula).parse();
+            synchronized (cache) {
+                cache.put(formula, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the number of formulas in the cache.
+     * @return int
+     */
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static long divide(long a, long b) {
+        if (b == 0) {
+            throw new ArithmeticException("Cannot divide by zero");
+        }
+        if (a == Long.MIN_VALUE && b == -1) {
+            throw new ArithmeticException("long overflow");
+        }
+        return a / b;
+    }
+
+    private static long factorial(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cannot calculate factorial of negative number");
+        }
+        if (n > FactorialService.MAX_LONG_FACTORIAL) {
+            throw new ArithmeticException("long overflow");
+        }
+        return FactorialService.smallFactorial((int) n);
+    }
+
+    /**
+     * A compiled subexpression; constant ones also carry their value.
+     */
+    private static final class Term {
+        final ToLongFunction<long[]> body;
+        final boolean constant;
+        final long value;
+
+        private Term(ToLongFunction<long[]> body, boolean constant, long value) {
+            this.body = body;
+            this.constant = constant;
+            this.value = value;
+        }
+
+        static Term constant(final long value) {
+            return new Term(values -> value, true, value);
+        }
+
+        static Term variable(final int slot) {
+            return new Term(values -> values[slot], false, 0);
+        }
+
+        static Term binary(final LongBinaryOperator op, final Term a, final Term b) {
+            if (a.constant && b.constant) {
+                try {
+                    return constant(op.applyAsLong(a.value, b.value));
+                } catch (ArithmeticException e) {
+                    //Leave it to evaluation, which fails the same way
+                }
+            }
+            final ToLongFunction<long[]> left = a.body;
+            final ToLongFunction<long[]> right = b.body;
+            if (b.constant) {
+                final long r = b.value;
+                return new Term(values -> op.applyAsLong(left.applyAsLong(values), r), false, 0);
+            }
+            if (a.constant) {
+                final long l = a.value;
+                return new Term(values -> op.applyAsLong(l, right.applyAsLong(values)), false, 0);
+            }
+            return new Term(values -> op.applyAsLong(left.applyAsLong(values), right.applyAsLong(values)), false, 0);
+        }
+
+        static Term factorial(Term n) {
+            if (n.constant) {
+                try {
+                    return constant(ExpressionEngine.factorial(n.value));
+                } catch (ArithmeticException | IllegalArgumentException e) {
+                    //Leave it to evaluation, which fails the same way
+                }
+            }
+            final ToLongFunction<long[]> arg = n.body;
+            return new Term(values -> ExpressionEngine.factorial(arg.applyAsLong(values)), false, 0);
+        }
+    }
+
+    /**
+     * Recursive descent parser producing a Term per grammar rule.
+     */
+    private static final class Parser {
+        private final String text;
+        private final List<String> variables = new ArrayList<String>();
+        private int pos;
+
+        Parser(String text) {
+            if (text == null) {
+                throw new IllegalArgumentException("Formula must not be null");
+            }
+            this.text = text;
+        }
+
+        CompiledExpression parse() {
+            Term term = expression();
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("Unexpected '" + text.charAt(pos) + "'");
+            }
+            return new CompiledExpression(text, variables.toArray(new String[0]), term.body, term.constant);
+        }
+
+        //expression := product (('+' | '-') product)*
+        private Term expression() {
+            Term term = product();
+            while (true) {
+                if (accept('+')) {
+                    term = Term.binary(ADD, term, product());
+                } else if (accept('-')) {
+                    term = Term.binary(SUBTRACT, term, product());
+                } else {
+                    return term;
+                }
+            }
+        }
+
+        //product := unary (('*' | '/') unary)*
+        private Term product() {
+            Term term = unary();
+            while (true) {
+                if (accept('*')) {
+                    term = Term.binary(MULTIPLY, term, unary());
+                } else if (accept('/')) {
+                    term = Term.binary(DIVIDE, term, unary());
+                } else {
+                    return term;
+                }
+            }
+        }
+
+        //unary := '-' unary | primary '!'*
+        private Term unary() {
+            if (accept('-')) {
+                return Term.binary(SUBTRACT, Term.constant(0), unary());
+            }
+            Term term = primary();
+            while (accept('!')) {
+                term = Term.factorial(term);
+            }
+            return term;
+        }
+
+        //primary := number | name | name '(' arguments ')' | '(' expression ')'
+        private Term primary() {
+            skipSpaces();
+            if (pos >= text.length()) {
+                throw error("Unexpected end of formula");
+            }
+            char c = text.charAt(pos);
+            if (accept('(')) {
+                Term term = expression();
+                expect(')');
+                return term;
+            }
+            if (c >= '0' && c <= '9') {
+                int start = pos;
+                while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                    pos++;
+                }
+                try {
+                    return Term.constant(Long.parseLong(text.substring(start, pos)));
+                } catch (NumberFormatException e) {
+                    pos = start;
+                    throw error("Number out of range");
+                }
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = pos;
+                while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                    pos++;
+                }
+                String name = text.substring(start, pos);
+                if (accept('(')) {
+                    return call(name, start);
+                }
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                return Term.variable(slot);
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Term call(String name, int start) {
+            List<Term> args = new ArrayList<Term>();
+            if (!accept(')')) {
+                do {
+                    args.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            LongBinaryOperator op;
+            if (name.equals("add")) {
+                op = ADD;
+            } else if (name.equals("multiply")) {
+                op = MULTIPLY;
+            } else if (name.equals("divide") && args.size() == 2) {
+                op = DIVIDE;
+            } else if (name.equals("factorial") && args.size() == 1) {
+                return Term.factorial(args.get(0));
+            } else {
+                pos = start;
+                throw error("Unknown function " + name + " with " + args.size() + " arguments");
+            }
+            if (args.isEmpty()) {
+                //Like Calculator.add(), an empty sum is 0; an empty product is 1
+                return Term.constant(op == ADD ? 0 : 1);
+            }
+            Term term = args.get(0);
+            for (int i = 1; i < args.size(); i++) {
+                term = Term.binary(op, term, args.get(i));
+            }
+            return term;
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error(pos < text.length() ? "Expected '" + c + "' but found '" + text.charAt(pos) + "'"
+                        : "Expected '" + c + "'");
+            }
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (pos + 1) + " of \"" + text + "\"");
+        }
+    }
+}
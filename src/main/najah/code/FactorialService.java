@@ -0,0 +1,176 @@
+package main.najah.code;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact factorials of any size. Factorials that fit in a long come from a
+ * table; larger ones multiply the odd parts of 21..n in a balanced product
+ * tree on the common fork/join pool and shift the powers of two back in at
+ * the end. The most recent large results are kept in an LRU cache.
+ */
+public class FactorialService {
+
+    /** Largest n whose factorial fits in a long */
+    public static final int MAX_LONG_FACTORIAL = 20;
+    public static final int DEFAULT_CACHE_SIZE = 16;
+    /** Factors below which a product tree node is multiplied on one thread */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private static final long[] TABLE = new long[MAX_LONG_FACTORIAL + 1];
+
+    static {
+        TABLE[0] = 1;
+        for (int i = 1; i < TABLE.length; i++) {
+            TABLE[i] = TABLE[i - 1] * i;
+        }
+    }
+
+    private final Map<Integer, BigInteger> cache;
+
+    public FactorialService() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a service that caches up to cacheSize large factorials.
+     * @param cacheSize
+     */
+    public FactorialService(final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must be non-negative");
+        }
+        this.cache = new LinkedHashMap<Integer, BigInteger>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Integer, BigInteger> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns n! as a long, or throws ArithmeticException if it does not fit.
+     * @param n
+     * @return long
+     */
+    public long factorialExact(int n) {
+        checkArgument(n);
+        if (n > MAX_LONG_FACTORIAL) {
+            throw new ArithmeticException("long overflow");
+        }
+        return TABLE[n];
+    }
+
+    /**
+     * Returns n! for 0 <= n <= MAX_LONG_FACTORIAL from the table.
+     */
+    static long smallFactorial(int n) {
+        return TABLE[n];
+    }
+
+    /**
+     * Returns n!.
+     * @param n
+     * @return BigInteger
+     */
+    public BigInteger factorial(int n) {
+        checkArgument(n);
+        if (n <= MAX_LONG_FACTORIAL) {
+            return BigInteger.valueOf(TABLE[n]);
+        }
+        BigInteger result;
+        synchronized (cache) {
+            result = cache.get(n);
+        }
+        if (result == null) {
+            //Computed outside the lock; two threads asking for the same
+            //n at once may both compute it
+            result = compute(n);
+            synchronized (cache) {
+                cache.put(n, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static void checkArgument(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cannot calculate factorial of negative number");
+        }
+    }
+
+    private static BigInteger compute(int n) {
+        //Powers of two in n! number n minus the ones in the binary form of n
+        int twos = n - Integer.bitCount(n);
+        int tableTwos = MAX_LONG_FACTORIAL - Integer.bitCount(MAX_LONG_FACTORIAL);
+        BigInteger odd = new ProductTask(MAX_LONG_FACTORIAL + 1, n + 1).invoke();
+        return odd.multiply(BigInteger.valueOf(TABLE[MAX_LONG_FACTORIAL] >> tableTwos)).shiftLeft(twos);
+    }
+
+    /**
+     * Multiplies the odd parts of the numbers in [from, to).
+     */
+    private static final class ProductTask extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ProductTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected BigInteger compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return product(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ProductTask left = new ProductTask(from, mid);
+            left.fork();
+            BigInteger right = new ProductTask(mid, to).compute();
+            return left.join().multiply(right);
+        }
+
+        /**
+         * Multiplies in longs while they do not overflow and combines
+         * those in a balanced tree, so BigInteger only multiplies numbers
+         * of similar size.
+         */
+        private static BigInteger product(int from, int to) {
+            long[] words = new long[to - from];
+            int count = 0;
+            long word = 1;
+            for (int i = from; i < to; i++) {
+                long odd = i >> Integer.numberOfTrailingZeros(i);
+                if (Long.numberOfLeadingZeros(word) + Long.numberOfLeadingZeros(odd) < 65) {
+                    words[count++] = word;
+                    word = 1;
+                }
+                word *= odd;
+            }
+            words[count++] = word;
+            return tree(words, 0, count);
+        }
+
+        private static BigInteger tree(long[] words, int from, int to) {
+            if (to - from == 1) {
+                return BigInteger.valueOf(words[from]);
+            }
+            int mid = (from + to) >>> 1;
+            return tree(words, from, mid).multiply(tree(words, mid, to));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package main.najah.code;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ingredient stock of the coffee maker. The stock of all four
+ * ingredients is one immutable snapshot replaced by compare-and-set, so
+ * a brew takes everything it needs in a single atomic step: it fails
+ * only when the stock really is short, never because of another brew in
+ * progress, and readers never see a brew half taken. Concurrent brews
+ * never block on a lock; a brew that loses a race simply retries against
+ * the new snapshot.
+ */
+public class Inventory {
+
+	private final AtomicReference<Stock> stock = new AtomicReference<Stock>(Stock.EMPTY);
+
+	/**
+	 * Creates an empty inventory.
+	 */
+	public Inventory() {
+	}
+
+	/**
+	 * Creates an inventory holding the given units of every ingredient.
+	 */
+	public Inventory(int coffee, int milk, int sugar, int chocolate) {
+		addIngredients(coffee, milk, sugar, chocolate);
+	}
+
+	/**
+	 * @return   Returns the units of coffee in stock.
+	 */
+	public long getCoffee() {
+		return stock.get().coffee;
+	}
+
+	/**
+	 * @return   Returns the units of milk in stock.
+	 */
+	public long getMilk() {
+		return stock.get().milk;
+	}
+
+	/**
+	 * @return   Returns the units of sugar in stock.
+	 */
+	public long getSugar() {
+		return stock.get().sugar;
+	}
+
+	/**
+	 * @return   Returns the units of chocolate in stock.
+	 */
+	public long getChocolate() {
+		return stock.get().chocolate;
+	}
+
+	/**
+	 * Adds the given units to the stock.
+	 */
+	public void addIngredients(int coffee, int milk, int sugar, int chocolate) {
+		if ((coffee | milk | sugar | chocolate) < 0) {
+			throw new IllegalArgumentException("Units of ingredients must be a positive integer");
+		}
+		Stock have;
+		do {
+			have = stock.get();
+		} while (!stock.compareAndSet(have, new Stock(have.coffee + coffee, have.milk + milk,
+				have.sugar + sugar, have.chocolate + chocolate)));
+	}
+
+	/**
+	 * Returns true if the stock currently covers the recipe.
+	 * @param r
+	 * @return boolean
+	 */
+	public boolean enoughIngredients(Recipe r) {
+		return stock.get().covers(r.getAmtCoffee(), r.getAmtMilk(), r.getAmtSugar(), r.getAmtChocolate());
+	}
+
+	/**
+	 * Takes the ingredients of the recipe out of the stock. Returns false
+	 * and leaves the stock unchanged if any ingredient is short.
+	 * @param r
+	 * @return boolean
+	 */
+	public boolean useIngredients(Recipe r) {
+		int coffee = r.getAmtCoffee();
+		int milk = r.getAmtMilk();
+		int sugar = r.getAmtSugar();
+		int chocolate = r.getAmtChocolate();
+		Stock have;
+		do {
+			have = stock.get();
+			if (!have.covers(coffee, milk, sugar, chocolate)) {
+				return false;
+			}
+		} while (!stock.compareAndSet(have, new Stock(have.coffee - coffee, have.milk - milk,
+				have.sugar - sugar, have.chocolate - chocolate)));
+		return true;
+	}
+
+	/**
+	 * Returns the stock as a readable string.
+	 * @return String
+	 */
+	public String toString() {
+		Stock s = stock.get();
+		return "Coffee: " + s.coffee + "\nMilk: " + s.milk
+				+ "\nSugar: " + s.sugar + "\nChocolate: " + s.chocolate + "\n";
+	}
+
+	/**
+	 * Units of every ingredient at one moment.
+	 */
+	private static final class Stock {
+		static final Stock EMPTY = new Stock(0, 0, 0, 0);
+
+		final long coffee;
+		final long milk;
+		final long sugar;
+		final long chocolate;
+
+		Stock(long coffee, long milk, long sugar, long chocolate) {
+			this.coffee = coffee;
+			this.milk = milk;
+			this.sugar = sugar;
+			this.chocolate = chocolate;
+		}
+
+		boolean covers(int coffee, int milk, int sugar, int chocolate) {
+			return this.coffee >= coffee && this.milk >= milk && this.sugar >= sugar && this.chocolate >= chocolate;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package main.najah.code;
+
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Fixed-point pricing: amounts are long cents and discounts are int basis
+ * points (1/100 of a percent), so a discount of 0-50% is 0-5000. Final
+ * prices are computed exactly in integers and rounded once, with an
+ * explicit RoundingMode, to whole cents. Nothing here allocates, and sums
+ * throw ArithmeticException instead of overflowing.
+ */
+public final class Money {
+
+    /** Basis points in 100% */
+    public static final int BASIS = 10000;
+    /** Largest discount allowed by Product.applyDiscount, in basis points */
+    public static final int MAX_DISCOUNT = 5000;
+
+    private Money() {
+    }
+
+    /**
+     * Returns the amount rounded to the nearest cent, half away from zero.
+     * Exact for prices with at most two decimals below 2^53 / 100.
+     * @param amount
+     * @return long
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Returns the percentage rounded to the nearest basis point.
+     * @param percentage
+     * @return int
+     */
+    public static int toBasisPoints(double percentage) {
+        return (int) Math.round(percentage * 100);
+    }
+
+    /**
+     * Returns price * (1 - discount / 100%) in cents, rounded as the mode
+     * says. Throws IllegalArgumentException for a discount outside 0-50%.
+     * @param priceCents
+     * @param discountBasisPoints
+     * @param mode
+     * @return long
+     */
+    public static long finalPrice(long priceCents, int discountBasisPoints, RoundingMode mode) {
+        checkDiscount(discountBasisPoints);
+        return divide(Math.multiplyExact(priceCents, (long) (BASIS - discountBasisPoints)), BASIS, mode);
+    }
+
+    /**
+     * Stores the final price of every element in out.
+     * @param priceCents
+     * @param discountBasisPoints
+     * @param out
+     * @param mode
+     */
+    public static void finalPrices(long[] priceCents, int[] discountBasisPoints, long[] out, RoundingMode mode) {
+        checkBatch(priceCents, discountBasisPoints, out.length);
+        Objects.requireNonNull(mode);
+        for (int i = 0; i < priceCents.length; i++) {
+            out[i] = finalPrice(priceCents[i], discountBasisPoints[i], mode);
+        }
+    }
+
+    /**
+     * Returns the exact sum of the rounded final prices.
+     * @param priceCents
+     * @param discountBasisPoints
+     * @param mode
+     * @return long
+     */
+    public static long total(long[] priceCents, int[] discountBasisPoints, RoundingMode mode) {
+        checkBatch(priceCents, discountBasisPoints, priceCents.length);
+        Objects.requireNonNull(mode);
+        long total = 0;
+        for (int i = 0; i < priceCents.length; i++) {
+            total = Math.addExact(total, finalPrice(priceCents[i], discountBasisPoints[i], mode));
+        }
+        return total;
+    }
+
+    /**
+     * Returns numerator / denominator rounded as the mode says. The
+     * denominator must be positive. UNNECESSARY throws
+     * ArithmeticException if the division is not exact.
+     * @param numerator
+     * @param denominator
+     * @param mode
+     * @return long
+     */
+    public static long divide(long numerator, long denominator, RoundingMode mode) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive");
+        }
+        long q = numerator / denominator;
+        long r = numerator % denominator;
+        if (r == 0) {
+            return q;
+        }
+        //q is truncated toward zero; decide whether to step one away from it
+        int sign = numerator < 0 ? -1 : 1;
+        boolean away;
+        switch (mode) {
+        case UP:
+            away = true;
+            break;
+        case DOWN:
+            away = false;
+            break;
+        case CEILING:
+            away = sign > 0;
+            break;
+        case FLOOR:
+            away = sign < 0;
+            break;
+        case HALF_UP:
+        case HALF_DOWN:
+        case HALF_EVEN:
+            long rest = Math.abs(r);
+            int half = Long.compare(rest, denominator - rest);
+            away = half > 0 || half == 0 && (mode == RoundingMode.HALF_UP
+                    || mode == RoundingMode.HALF_EVEN && (q & 1) != 0);
+            break;
+        default:
+            throw new ArithmeticException("Rounding necessary");
+        }
+        return away ? q + sign : q;
+    }
+
+    /**
+     * Returns cents as a decimal string such as "-12.05".
+     * @param cents
+     * @return String
+     */
+    public static String format(long cents) {
+        long units = Math.abs(cents / 100);
+        long rest = Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + units + (rest < 10 ? ".0" : ".") + rest;
+    }
+
+    static void checkDiscount(int discountBasisPoints) {
+        if (discountBasisPoints < 0 || discountBasisPoints > MAX_DISCOUNT) {
+            throw new IllegalArgumentException("Invalid discount");
+        }
+    }
+
+    private static void checkBatch(long[] priceCents, int[] discountBasisPoints, int outLength) {
+        if (discountBasisPoints.length != priceCents.length || outLength < priceCents.length) {
+            throw new IllegalArgumentException("Price, discount and result arrays must have matching lengths");
+        }
+    }
+}
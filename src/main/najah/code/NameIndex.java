@@ -0,0 +1,396 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Search index over the names of products, recipes or anything else with
+ * a name, for exact, prefix and case-insensitive lookup.
+ *
+ * Every item gets an int id. The ids are kept sorted by lower-cased name
+ * in blocks of at most BLOCK_SIZE ints, so the dictionary costs 4 bytes
+ * per name on top of the names themselves, a lookup is two binary
+ * searches and an add or remove shifts at most one block. Prefix results
+ * come back in name order, which is what autocomplete shows.
+ *
+ * Items are found again by the name they have when removed, so remove an
+ * item before renaming it. A NameIndex is not thread-safe.
+ */
+public class NameIndex<T> {
+
+    static final int BLOCK_SIZE = 512;
+
+    private final Function<? super T, String> nameOf;
+    /** Item, name and lower-cased name by id; null for a free id */
+    private Object[] items = new Object[16];
+    private String[] names = new String[16];
+    private String[] keys = new String[16];
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private int nextId;
+    /** Ids sorted by (key, id), split into blocks */
+    private int[][] blocks = new int[0][];
+    private int[] blockSizes = new int[0];
+    private int blockCount;
+    private int size;
+
+    /**
+     * Creates an empty index reading names with nameOf, e.g.
+     * new NameIndex<Product>(Product::getName).
+     * @param nameOf
+     */
+    public NameIndex(Function<? super T, String> nameOf) {
+        if (nameOf == null) {
+            throw new IllegalArgumentException("Name function must not be null");
+        }
+        this.nameOf = nameOf;
+    }
+
+    /**
+     * Creates an index over the names of the products.
+     * @param products
+     * @return NameIndex
+     */
+    public static NameIndex<Product> ofProducts(Iterable<Product> products) {
+        NameIndex<Product> index = new NameIndex<Product>(Product::getName);
+        index.addAll(products);
+        return index;
+    }
+
+    /**
+     * Creates an index over the names of the recipes.
+     * @param recipes
+     * @return NameIndex
+     */
+    public static NameIndex<Recipe> ofRecipes(Iterable<Recipe> recipes) {
+        NameIndex<Recipe> index = new NameIndex<Recipe>(Recipe::getName);
+        index.addAll(recipes);
+        return index;
+    }
+
+    /**
+     * Returns the number of indexed items.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indexes the item under its current name.
+     * @param item
+     */
+    public void add(T item) {
+        int id = register(item);
+        long pos = search(keys[id], id);
+        insert(id, (int) (pos >>> 32), (int) pos);
+    }
+
+    /**
+     * Indexes every item, sorting once instead of inserting one by one.
+     * @param items
+     */
+    public void addAll(Iterable<? extends T> items) {
+        for (T item : items) {
+            register(item);
+        }
+        int[] ids = new int[size];
+        int n = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (this.items[id] != null) {
+                ids[n++] = id;
+            }
+        }
+        sort(ids, new int[n], 0, n);
+        rebuild(ids);
+    }
+
+    /**
+     * Removes the item, looked up by its current name, and returns true
+     * if it was indexed.
+     * @param item
+     * @return boolean
+     */
+    public boolean remove(T item) {
+        if (item == null || blockCount == 0) {
+            return false;
+        }
+        String name = nameOf.apply(item);
+        if (name == null) {
+            return false;
+        }
+        String key = fold(name);
+        long pos = search(key, -1);
+        int b = (int) (pos >>> 32);
+        int i = (int) pos;
+        while (b < blockCount) {
+            if (i == blockSizes[b]) {
+                b++;
+                i = 0;
+                continue;
+            }
+            int id = blocks[b][i];
+            if (!keys[id].equals(key)) {
+                return false;
+            }
+            if (items[id] == item) {
+                delete(b, i);
+                release(id);
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    /**
+     * Returns an item with exactly this name, or null.
+     * @param name
+     * @return T
+     */
+    public T get(String name) {
+        List<T> found = collect(name, false, true, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Returns every item with exactly this name.
+     * @param name
+     * @return List
+     */
+    public List<T> find(String name) {
+        return collect(name, false, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns every item whose name equals this one ignoring case.
+     * @param name
+     * @return List
+     */
+    public List<T> findIgnoreCase(String name) {
+        return collect(name, false, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to limit items whose name starts with the prefix, in
+     * name order.
+     * @param prefix
+     * @param limit
+     * @return List
+     */
+    public List<T> startingWith(String prefix, int limit) {
+        return collect(prefix, true, true, limit);
+    }
+
+    /**
+     * Returns up to limit items whose name starts with the prefix ignoring
+     * case, in name order.
+     * @param prefix
+     * @param limit
+     * @return List
+     */
+    public List<T> startingWithIgnoreCase(String prefix, int limit) {
+        return collect(prefix, true, false, limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> collect(String text, boolean prefix, boolean matchCase, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative");
+        }
+        List<T> found = new ArrayList<T>();
+        if (text == null || blockCount == 0) {
+            return found;
+        }
+        String key = fold(text);
+        long pos = search(key, -1);
+        int b = (int) (pos >>> 32);
+        int i = (int) pos;
+        while (b < blockCount && found.size() < limit) {
+            if (i == blockSizes[b]) {
+                b++;
+                i = 0;
+                continue;
+            }
+            int id = blocks[b][i++];
+            if (prefix ? !keys[id].startsWith(key) : !keys[id].equals(key)) {
+                break;
+            }
+            if (!matchCase || (prefix ? names[id].startsWith(text) : names[id].equals(text))) {
+                found.add((T) items[id]);
+            }
+        }
+        return found;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Orders ids by lower-cased name, then by id.
+     */
+    private int compare(String key, int id, int other) {
+        int c = key.compareTo(keys[other]);
+        return c != 0 ? c : Integer.compare(id, other);
+    }
+
+    /**
+     * Returns block << 32 | offset of the first id not ordered before
+     * (key, id); id -1 finds the first entry with the key.
+     */
+    private long search(String key, int id) {
+        if (blockCount == 0) {
+            return 0;
+        }
+        int lo = 0;
+        int hi = blockCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(key, id, blocks[mid][blockSizes[mid] - 1]) > 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int[] block = blocks[lo];
+        int from = 0;
+        int to = blockSizes[lo];
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (compare(key, id, block[mid]) > 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return (long) lo << 32 | from;
+    }
+
+    private int register(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item must not be null");
+        }
+        String name = nameOf.apply(item);
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (nextId == items.length) {
+                int capacity = items.length * 2;
+                items = Arrays.copyOf(items, capacity);
+                names = Arrays.copyOf(names, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            id = nextId++;
+        }
+        items[id] = item;
+        names[id] = name;
+        keys[id] = fold(name);
+        size++;
+        return id;
+    }
+
+    private void release(int id) {
+        items[id] = null;
+        names[id] = null;
+        keys[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(16, freeCount * 2));
+        }
+        freeIds[freeCount++] = id;
+        size--;
+    }
+
+    private void insert(int id, int b, int i) {
+        if (blockCount == 0) {
+            openBlock(0, new int[BLOCK_SIZE], 0);
+        }
+        if (blockSizes[b] == BLOCK_SIZE) {
+            //Split the full block in two and insert into the right half
+            int half = BLOCK_SIZE / 2;
+            int[] right = new int[BLOCK_SIZE];
+            System.arraycopy(blocks[b], half, right, 0, BLOCK_SIZE - half);
+            blockSizes[b] = half;
+            openBlock(b + 1, right, BLOCK_SIZE - half);
+            if (i > half) {
+                b++;
+                i -= half;
+            }
+        }
+        int[] block = blocks[b];
+        System.arraycopy(block, i, block, i + 1, blockSizes[b] - i);
+        block[i] = id;
+        blockSizes[b]++;
+    }
+
+    private void delete(int b, int i) {
+        int[] block = blocks[b];
+        System.arraycopy(block, i + 1, block, i, blockSizes[b] - i - 1);
+        if (--blockSizes[b] == 0) {
+            System.arraycopy(blocks, b + 1, blocks, b, blockCount - b - 1);
+            System.arraycopy(blockSizes, b + 1, blockSizes, b, blockCount - b - 1);
+            blocks[--blockCount] = null;
+        }
+    }
+
+    private void openBlock(int b, int[] block, int blockSize) {
+        if (blockCount == blocks.length) {
+            int capacity = Math.max(4, blockCount * 2);
+            blocks = Arrays.copyOf(blocks, capacity);
+            blockSizes = Arrays.copyOf(blockSizes, capacity);
+        }
+        System.arraycopy(blocks, b, blocks, b + 1, blockCount - b);
+        System.arraycopy(blockSizes, b, blockSizes, b + 1, blockCount - b);
+        blocks[b] = block;
+        blockSizes[b] = blockSize;
+        blockCount++;
+    }
+
+    /**
+     * Refills the blocks from sorted ids, three quarters full so that the
+     * next adds do not split at once.
+     */
+    private void rebuild(int[] ids) {
+        int fill = BLOCK_SIZE * 3 / 4;
+        blockCount = 0;
+        blocks = new int[(ids.length + fill - 1) / fill][];
+        blockSizes = new int[blocks.length];
+        for (int from = 0; from < ids.length; from += fill) {
+            int n = Math.min(fill, ids.length - from);
+            int[] block = new int[BLOCK_SIZE];
+            System.arraycopy(ids, from, block, 0, n);
+            blocks[blockCount] = block;
+            blockSizes[blockCount++] = n;
+        }
+    }
+
+    /**
+     * Merge sort of ids[from..to) by (key, id), using tmp as scratch.
+     */
+    private void sort(int[] ids, int[] tmp, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(ids, tmp, from, mid);
+        sort(ids, tmp, mid, to);
+        if (compare(keys[ids[mid - 1]], ids[mid - 1], ids[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(ids, from, tmp, from, to - from);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r == to || l < mid && compare(keys[tmp[l]], tmp[l], tmp[r]) <= 0) {
+                ids[i] = tmp[l++];
+            } else {
+                ids[i] = tmp[r++];
+            }
+        }
+    }
+}
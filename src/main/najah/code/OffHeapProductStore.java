@@ -0,0 +1,325 @@
+package main.najah.code;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Product prices kept outside the Java heap, in direct memory or in a
+ * memory-mapped file. Every product is a fixed 24-byte record
+ * (price, discount, name offset, name length) addressed by row; names
+ * are UTF-8 bytes in a separate region. The heap only holds the buffer
+ * objects, whatever the number of products.
+ *
+ * Records and names are split over buffers of at most 1 GB, since a
+ * ByteBuffer is limited to 2 GB. Discount validation and the final-price
+ * formula are the same as Product. An OffHeapProductStore is not
+ * thread-safe and must not be used after close().
+ *
+ * A file-backed store writes through the mapping; its contents are
+ * mapped again, not read, when the file is opened.
+ */
+public class OffHeapProductStore {
+
+    private static final int MAGIC = 0x50525331;
+    /** magic, size, capacity, pad, name end, name capacity */
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 24;
+    private static final int PRICE = 0;
+    private static final int DISCOUNT = 8;
+    private static final int NAME_OFFSET = 16;
+    private static final int NAME_LENGTH = 20;
+    private static final int RECORD_SHIFT = 22;
+    /** 4M records, 96 MB per buffer */
+    private static final int RECORDS_PER_CHUNK = 1 << RECORD_SHIFT;
+    private static final int NAME_CHUNK_SHIFT = 30;
+    private static final long NAME_CHUNK_BYTES = 1L << NAME_CHUNK_SHIFT;
+
+    private final int capacity;
+    private final long nameCapacity;
+    private final ByteBuffer header;
+    private final ByteBuffer[] records;
+    private final ByteBuffer[] names;
+    private final FileChannel channel;
+    private int size;
+    private long nameEnd;
+
+    private OffHeapProductStore(int capacity, long nameCapacity, ByteBuffer header, ByteBuffer[] records,
+            ByteBuffer[] names, FileChannel channel) {
+        this.capacity = capacity;
+        this.nameCapacity = nameCapacity;
+        this.header = header;
+        this.records = records;
+        this.names = names;
+        this.channel = channel;
+        this.size = header.getInt(4);
+        this.nameEnd = header.getLong(16);
+    }
+
+    /**
+     * Creates a store in direct memory for up to capacity products whose
+     * names take up to nameCapacity bytes in UTF-8.
+     * @param capacity
+     * @param nameCapacity
+     * @return OffHeapProductStore
+     */
+    public static OffHeapProductStore allocate(int capacity, long nameCapacity) {
+        checkCapacity(capacity, nameCapacity);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer[] records = new ByteBuffer[chunks(capacity, RECORDS_PER_CHUNK)];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = ByteBuffer.allocateDirect(chunkLength(capacity, i, RECORDS_PER_CHUNK) * RECORD_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer[] names = new ByteBuffer[chunks(nameCapacity, NAME_CHUNK_BYTES)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = ByteBuffer.allocateDirect((int) chunkLength(nameCapacity, i, NAME_CHUNK_BYTES));
+        }
+        return new OffHeapProductStore(capacity, nameCapacity, header, records, names, null);
+    }
+
+    /**
+     * Maps the store kept in the given file, creating it with the given
+     * capacities if it does not exist. An existing file keeps the
+     * capacities it was created with.
+     * @param file
+     * @param capacity
+     * @param nameCapacity
+     * @return OffHeapProductStore
+     * @throws IOException
+     */
+    public static OffHeapProductStore open(Path file, int capacity, long nameCapacity) throws IOException {
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = map(ch, 0, HEADER_BYTES);
+            if (exists) {
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a product store: " + file);
+                }
+                capacity = header.getInt(8);
+                nameCapacity = header.getLong(24);
+            } else {
+                checkCapacity(capacity, nameCapacity);
+                header.putInt(8, capacity);
+                header.putLong(24, nameCapacity);
+                header.putInt(0, MAGIC);
+            }
+            long recordStart = HEADER_BYTES;
+            long nameStart = recordStart + (long) capacity * RECORD_BYTES;
+            //Mapping a new file extends it to the full size
+            if (exists && ch.size() < nameStart + nameCapacity) {
+                throw new IOException("Product store is truncated: " + file);
+            }
+            ByteBuffer[] records = new ByteBuffer[chunks(capacity, RECORDS_PER_CHUNK)];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = map(ch, recordStart + (long) i * RECORDS_PER_CHUNK * RECORD_BYTES,
+                        (long) chunkLength(capacity, i, RECORDS_PER_CHUNK) * RECORD_BYTES);
+            }
+            ByteBuffer[] names = new ByteBuffer[chunks(nameCapacity, NAME_CHUNK_BYTES)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = map(ch, nameStart + i * NAME_CHUNK_BYTES, chunkLength(nameCapacity, i, NAME_CHUNK_BYTES));
+            }
+            return new OffHeapProductStore(capacity, nameCapacity, header, records, names, ch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of products.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of products.
+     * @return int
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a product without discount and returns its row. Throws
+     * IllegalStateException if the store has no room for it.
+     * @param name
+     * @param price
+     * @return int
+     */
+    public int add(String name, double price) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must be non-negative");
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        long offset = nameEnd;
+        //A name never spans two buffers
+        long chunkEnd = ((offset >>> NAME_CHUNK_SHIFT) + 1) << NAME_CHUNK_SHIFT;
+        if (offset + bytes.length > chunkEnd) {
+            offset = chunkEnd;
+        }
+        if (size == capacity || offset + bytes.length > nameCapacity) {
+            throw new IllegalStateException("Product store is full");
+        }
+        if (bytes.length > 0) {
+            ByteBuffer chunk = names[(int) (offset >>> NAME_CHUNK_SHIFT)].duplicate();
+            chunk.position((int) (offset & (NAME_CHUNK_BYTES - 1)));
+            chunk.put(bytes);
+        }
+        int row = size;
+        ByteBuffer r = records[row >>> RECORD_SHIFT];
+        int p = (row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES;
+        r.putDouble(p + PRICE, price);
+        r.putDouble(p + DISCOUNT, 0);
+        r.putInt(p + NAME_OFFSET, (int) offset);
+        r.putInt(p + NAME_LENGTH, bytes.length);
+        //Publish the new size last so a reopened file never sees a half-written record
+        nameEnd = offset + bytes.length;
+        size = row + 1;
+        header.putLong(16, nameEnd);
+        header.putInt(4, size);
+        return row;
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        ByteBuffer r = records[row >>> RECORD_SHIFT];
+        int p = (row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES;
+        long offset = r.getInt(p + NAME_OFFSET) & 0xFFFFFFFFL;
+        byte[] bytes = new byte[r.getInt(p + NAME_LENGTH)];
+        if (bytes.length == 0) {
+            return "";
+        }
+        ByteBuffer chunk = names[(int) (offset >>> NAME_CHUNK_SHIFT)].duplicate();
+        chunk.position((int) (offset & (NAME_CHUNK_BYTES - 1)));
+        chunk.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public double getPrice(int row) {
+        checkRow(row);
+        return records[row >>> RECORD_SHIFT].getDouble((row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES + PRICE);
+    }
+
+    public double getDiscount(int row) {
+        checkRow(row);
+        return records[row >>> RECORD_SHIFT].getDouble((row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES + DISCOUNT);
+    }
+
+    /**
+     * Sets the discount of the row, with the validation of Product.applyDiscount.
+     * @param row
+     * @param discountPercentage
+     */
+    public void applyDiscount(int row, double discountPercentage) {
+        checkRow(row);
+        ProductCatalog.checkDiscount(discountPercentage);
+        records[row >>> RECORD_SHIFT].putDouble((row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES + DISCOUNT,
+                discountPercentage);
+    }
+
+    /**
+     * Returns the final price of the row as Product.getFinalPrice would.
+     * @param row
+     * @return double
+     */
+    public double getFinalPrice(int row) {
+        checkRow(row);
+        ByteBuffer r = records[row >>> RECORD_SHIFT];
+        int p = (row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES;
+        return r.getDouble(p + PRICE) * (1 - r.getDouble(p + DISCOUNT) / 100);
+    }
+
+    /**
+     * Stores the final prices of rows [from, to) in out, starting at offset.
+     * @param from
+     * @param to
+     * @param out
+     * @param offset
+     */
+    public void getFinalPrices(int from, int to, double[] out, int offset) {
+        Objects.checkFromToIndex(from, to, size);
+        Objects.checkFromIndexSize(offset, to - from, out.length);
+        int j = offset;
+        for (int row = from; row < to;) {
+            ByteBuffer r = records[row >>> RECORD_SHIFT];
+            int end = Math.min(to, ((row >>> RECORD_SHIFT) + 1) << RECORD_SHIFT);
+            for (int p = (row & (RECORDS_PER_CHUNK - 1)) * RECORD_BYTES; row < end; row++, p += RECORD_BYTES) {
+                out[j++] = r.getDouble(p + PRICE) * (1 - r.getDouble(p + DISCOUNT) / 100);
+            }
+        }
+    }
+
+    /**
+     * Writes the changes of a file-backed store to disk. Does nothing for
+     * a store in direct memory.
+     */
+    public void force() {
+        if (channel == null) {
+            return;
+        }
+        for (ByteBuffer r : records) {
+            ((MappedByteBuffer) r).force();
+        }
+        for (ByteBuffer n : names) {
+            ((MappedByteBuffer) n).force();
+        }
+        ((MappedByteBuffer) header).force();
+    }
+
+    /**
+     * Forces and closes a file-backed store. The mappings stay valid
+     * until the buffers are collected.
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+        }
+    }
+
+    private static void checkCapacity(int capacity, long nameCapacity) {
+        if (capacity < 0 || nameCapacity < 0 || nameCapacity > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Capacities must be non-negative and names must fit in 4 GB");
+        }
+    }
+
+    private static int chunks(long capacity, long perChunk) {
+        return (int) ((capacity + perChunk - 1) / perChunk);
+    }
+
+    private static int chunkLength(int capacity, int chunk, int perChunk) {
+        return Math.min(perChunk, capacity - chunk * perChunk);
+    }
+
+    private static long chunkLength(long capacity, int chunk, long perChunk) {
+        return Math.min(perChunk, capacity - chunk * perChunk);
+    }
+
+    private static MappedByteBuffer map(FileChannel ch, long position, long length) throws IOException {
+        MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_WRITE, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
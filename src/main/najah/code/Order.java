@@ -0,0 +1,48 @@
+package main.najah.code;
+
+/**
+ * A customer order for one recipe.
+ */
+public class Order {
+
+	private final long id;
+	private final String recipeName;
+	private final int amtPaid;
+
+	/**
+	 * Creates an order for the named recipe.
+	 * @param id
+	 * @param recipeName
+	 * @param amtPaid
+	 */
+	public Order(long id, String recipeName, int amtPaid) {
+		this.id = id;
+		this.recipeName = recipeName;
+		this.amtPaid = amtPaid;
+	}
+
+	/**
+	 * @return   Returns the id.
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return   Returns the name of the recipe ordered.
+	 */
+	public String getRecipeName() {
+		return recipeName;
+	}
+
+	/**
+	 * @return   Returns the amount paid.
+	 */
+	public int getAmtPaid() {
+		return amtPaid;
+	}
+
+	public String toString() {
+		return "Order " + id + ": " + recipeName;
+	}
+}
@@ -0,0 +1,352 @@
+package main.najah.code;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Processes orders in batches through a chain of stages, each on its own
+ * thread: validate, look up the recipe, reserve ingredients, charge and
+ * emit. Stages hand whole batches to each other over bounded queues, so
+ * a slow stage makes the stages before it wait and submit() blocks once
+ * every queue is full.
+ *
+ * A batch is closed when it holds batchSize orders or when the first
+ * order in it has waited maxLatency milliseconds, whichever comes first.
+ *
+ * A stage that throws on a batch marks its undecided orders FAILED and
+ * passes it on, so one bad batch neither stops the pipeline nor keeps
+ * close() waiting.
+ */
+public class OrderPipeline {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+	private static final long DEFAULT_MAX_LATENCY = 5;
+	private static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	private final RecipeBook recipeBook;
+	private final Inventory inventory;
+	private final Consumer<List<OrderResult>> sink;
+	private final int batchSize;
+	private final long maxLatencyNanos;
+	private final BlockingQueue<Order> intake;
+	/** Output of the first stage */
+	private final BlockingQueue<Batch> validated;
+	private final List<Thread> stages = new ArrayList<Thread>();
+	private volatile boolean closed;
+	/**
+	 * Held for reading by submitters from the closed check until the order
+	 * is queued and for writing by close(), so an order is either queued
+	 * before the pipeline closes or rejected
+	 */
+	private final ReadWriteLock submission = new ReentrantReadWriteLock();
+
+	/**
+	 * Creates a pipeline with default batch size, latency and queue capacity.
+	 * @param recipeBook
+	 * @param inventory
+	 * @param sink receives the results of every batch, in order; a batch it throws on is dropped
+	 */
+	public OrderPipeline(RecipeBook recipeBook, Inventory inventory, Consumer<List<OrderResult>> sink) {
+		this(recipeBook, inventory, sink, DEFAULT_BATCH_SIZE, DEFAULT_MAX_LATENCY, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Creates a pipeline.
+	 * @param recipeBook
+	 * @param inventory
+	 * @param sink receives the results of every batch, in order; a batch it throws on is dropped
+	 * @param batchSize largest number of orders in a batch
+	 * @param maxLatency longest time in milliseconds an order waits for its batch to fill
+	 * @param queueCapacity number of batches buffered between two stages
+	 */
+	public OrderPipeline(RecipeBook recipeBook, Inventory inventory, Consumer<List<OrderResult>> sink,
+			int batchSize, long maxLatency, int queueCapacity) {
+		if (recipeBook == null || inventory == null || sink == null) {
+			throw new IllegalArgumentException("Recipe book, inventory and sink must not be null");
+		}
+		if (batchSize < 1 || maxLatency < 0 || queueCapacity < 1) {
+			throw new IllegalArgumentException("Invalid pipeline configuration");
+		}
+		this.recipeBook = recipeBook;
+		this.inventory = inventory;
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatency);
+		this.intake = new ArrayBlockingQueue<Order>(batchSize * queueCapacity);
+
+		BlockingQueue<Batch> validated = new ArrayBlockingQueue<Batch>(queueCapacity);
+		BlockingQueue<Batch> found = new ArrayBlockingQueue<Batch>(queueCapacity);
+		BlockingQueue<Batch> reserved = new ArrayBlockingQueue<Batch>(queueCapacity);
+		BlockingQueue<Batch> charged = new ArrayBlockingQueue<Batch>(queueCapacity);
+		stages.add(new Thread(this::collect, "order-validate"));
+		stages.add(new Stage("order-lookup", validated, found) {
+			void process(Batch b) {
+				lookup(b);
+			}
+		});
+		stages.add(new Stage("order-reserve", found, reserved) {
+			void process(Batch b) {
+				reserve(b);
+			}
+		});
+		stages.add(new Stage("order-charge", reserved, charged) {
+			void process(Batch b) {
+				charge(b);
+			}
+		});
+		stages.add(new Stage("order-emit", charged, null) {
+			void process(Batch b) {
+				emit(b);
+			}
+		});
+		this.validated = validated;
+		for (Thread stage : stages) {
+			stage.setDaemon(true);
+			stage.start();
+		}
+	}
+
+	/**
+	 * Queues an order, waiting while the pipeline is full.
+	 * @param order
+	 * @throws InterruptedException
+	 */
+	public void submit(Order order) throws InterruptedException {
+		submission.readLock().lockInterruptibly();
+		try {
+			if (closed) {
+				throw new IllegalStateException("Pipeline is closed");
+			}
+			intake.put(order);
+		} finally {
+			submission.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Queues an order unless the pipeline is full.
+	 * @param order
+	 * @return boolean
+	 */
+	public boolean trySubmit(Order order) {
+		submission.readLock().lock();
+		try {
+			if (closed) {
+				throw new IllegalStateException("Pipeline is closed");
+			}
+			return intake.offer(order);
+		} finally {
+			submission.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops accepting orders and waits until every queued order has been
+	 * emitted. Submissions already in progress are queued first.
+	 * @throws InterruptedException
+	 */
+	public void close() throws InterruptedException {
+		submission.writeLock().lockInterruptibly();
+		try {
+			closed = true;
+		} finally {
+			submission.writeLock().unlock();
+		}
+		for (Thread stage : stages) {
+			stage.join();
+		}
+	}
+
+	/**
+	 * First stage: cuts the intake into batches and validates each order.
+	 */
+	private void collect() {
+		try {
+			while (true) {
+				Order first = intake.poll(10, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					if (closed && intake.isEmpty()) {
+						break;
+					}
+					continue;
+				}
+				Batch b = new Batch(batchSize);
+				b.add(first);
+				long deadline = System.nanoTime() + maxLatencyNanos;
+				while (b.count < batchSize) {
+					if (intake.drainTo(b, batchSize - b.count) == 0) {
+						long wait = deadline - System.nanoTime();
+						Order next = wait > 0 ? intake.poll(wait, TimeUnit.NANOSECONDS) : null;
+						if (next == null) {
+							break;
+						}
+						b.add(next);
+					}
+				}
+				try {
+					validate(b);
+				} catch (RuntimeException e) {
+					b.fail();
+				}
+				validated.put(b);
+			}
+			validated.put(Batch.END);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void validate(Batch b) {
+		for (int i = 0; i < b.count; i++) {
+			Order o = b.orders[i];
+			if (o.getRecipeName() == null || o.getRecipeName().isEmpty() || o.getAmtPaid() < 0) {
+				b.status[i] = OrderResult.Status.INVALID;
+			}
+			b.names[i] = b.status[i] == null ? o.getRecipeName() : null;
+		}
+	}
+
+	/**
+	 * Resolves the whole batch against a single version of the book.
+	 */
+	private void lookup(Batch b) {
+		recipeBook.getRecipes(b.names, b.count, b.recipes);
+		for (int i = 0; i < b.count; i++) {
+			if (b.status[i] == null && (b.recipes[i] == null || b.recipes[i].getName().isEmpty())) {
+				b.status[i] = OrderResult.Status.UNKNOWN_RECIPE;
+			}
+		}
+	}
+
+	private void reserve(Batch b) {
+		for (int i = 0; i < b.count; i++) {
+			if (b.status[i] != null) {
+				continue;
+			}
+			if (b.orders[i].getAmtPaid() < b.recipes[i].getPrice()) {
+				b.status[i] = OrderResult.Status.INSUFFICIENT_FUNDS;
+			} else if (!inventory.useIngredients(b.recipes[i])) {
+				b.status[i] = OrderResult.Status.OUT_OF_STOCK;
+			}
+		}
+	}
+
+	private static void charge(Batch b) {
+		for (int i = 0; i < b.count; i++) {
+			if (b.status[i] == null) {
+				b.status[i] = OrderResult.Status.BREWED;
+				b.charges[i] = b.recipes[i].getPrice();
+			}
+		}
+	}
+
+	private void emit(Batch b) {
+		OrderResult[] results = new OrderResult[b.count];
+		for (int i = 0; i < b.count; i++) {
+			results[i] = new OrderResult(b.orders[i], b.status[i], b.charges[i]);
+		}
+		sink.accept(Collections.unmodifiableList(Arrays.asList(results)));
+	}
+
+	/**
+	 * Orders travelling through the pipeline together, with one column
+	 * per piece of state the stages fill in.
+	 */
+	private static final class Batch extends AbstractCollection<Order> {
+		static final Batch END = new Batch(0);
+
+		final Order[] orders;
+		final String[] names;
+		final Recipe[] recipes;
+		final OrderResult.Status[] status;
+		final int[] charges;
+		int count;
+
+		Batch(int capacity) {
+			orders = new Order[capacity];
+			names = new String[capacity];
+			recipes = new Recipe[capacity];
+			status = new OrderResult.Status[capacity];
+			charges = new int[capacity];
+		}
+
+		/**
+		 * Marks every order not yet refused as failed, including those a
+		 * later stage would have charged, and drops their charges.
+		 */
+		void fail() {
+			for (int i = 0; i < count; i++) {
+				if (status[i] == null || status[i] == OrderResult.Status.BREWED) {
+					status[i] = OrderResult.Status.FAILED;
+					charges[i] = 0;
+				}
+			}
+		}
+
+		/** Lets drainTo() fill the batch directly */
+		public boolean add(Order o) {
+			orders[count++] = o;
+			return true;
+		}
+
+		public int size() {
+			return count;
+		}
+
+		public Iterator<Order> iterator() {
+			return Arrays.asList(orders).subList(0, count).iterator();
+		}
+	}
+
+	/**
+	 * A stage thread that takes batches from one queue, processes them
+	 * and passes them on, until it sees the end marker.
+	 */
+	private abstract static class Stage extends Thread {
+		private final BlockingQueue<Batch> in;
+		private final BlockingQueue<Batch> out;
+
+		Stage(String name, BlockingQueue<Batch> in, BlockingQueue<Batch> out) {
+			super(name);
+			this.in = in;
+			this.out = out;
+		}
+
+		abstract void process(Batch b);
+
+		public void run() {
+			try {
+				while (true) {
+					Batch b = in.take();
+					if (b != Batch.END) {
+						try {
+							process(b);
+						} catch (RuntimeException e) {
+							//Keep the stage alive so the batches behind it and
+							//the end marker still get through
+							b.fail();
+						}
+					}
+					if (out != null) {
+						out.put(b);
+					}
+					if (b == Batch.END) {
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package main.najah.code;
+
+/**
+ * Outcome of an Order processed by an OrderPipeline.
+ */
+public class OrderResult {
+
+	/** Why an order was or was not brewed */
+	public enum Status {
+		BREWED, INVALID, UNKNOWN_RECIPE, INSUFFICIENT_FUNDS, OUT_OF_STOCK,
+		/** A stage threw while processing the order's batch; nothing was charged */
+		FAILED
+	}
+
+	private final Order order;
+	private final Status status;
+	private final int charge;
+
+	OrderResult(Order order, Status status, int charge) {
+		this.order = order;
+		this.status = status;
+		this.charge = charge;
+	}
+
+	/**
+	 * @return   Returns the order.
+	 */
+	public Order getOrder() {
+		return order;
+	}
+
+	/**
+	 * @return   Returns the status.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return   Returns the amount charged, 0 unless the order was brewed.
+	 */
+	public int getCharge() {
+		return charge;
+	}
+
+	/**
+	 * @return   Returns the change due to the customer.
+	 */
+	public int getChange() {
+		return order.getAmtPaid() - charge;
+	}
+
+	public String toString() {
+		return order + " " + status;
+	}
+}
@@ -0,0 +1,15 @@
+package main.najah.code;
+
+/**
+ * What Calculator does when an int result does not fit.
+ */
+public enum OverflowMode {
+    /** Keep the low bits, as the plain int methods always have */
+    WRAP,
+    /** Throw ArithmeticException, or flag the element in a batch */
+    EXACT,
+    /** Clamp to Integer.MIN_VALUE or Integer.MAX_VALUE */
+    SATURATE,
+    /** Return the exact result as a long */
+    WIDEN
+}
@@ -0,0 +1,89 @@
+package main.najah.code;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices products and catalogs with the current rule set, which can be
+ * replaced at any time. A swap is atomic: every price and every bulk pass
+ * uses either the old rules or the new ones, never a mix, and readers
+ * never wait for a swap.
+ */
+public class PricingEngine {
+
+    private final AtomicReference<CompiledPricingRules> rules;
+
+    /**
+     * Creates an engine without rules, which gives no discounts.
+     */
+    public PricingEngine() {
+        this(new PricingRules().compile());
+    }
+
+    public PricingEngine(CompiledPricingRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        this.rules = new AtomicReference<CompiledPricingRules>(rules);
+    }
+
+    /**
+     * @return   Returns the current rules.
+     */
+    public CompiledPricingRules getRules() {
+        return rules.get();
+    }
+
+    /**
+     * Compiles the rules and makes them current, returning the previous
+     * ones. Compilation happens before the swap, so readers never wait.
+     * @param newRules
+     * @return CompiledPricingRules
+     */
+    public CompiledPricingRules setRules(PricingRules newRules) {
+        return setRules(newRules.compile());
+    }
+
+    public CompiledPricingRules setRules(CompiledPricingRules newRules) {
+        if (newRules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        return rules.getAndSet(newRules);
+    }
+
+    /**
+     * Replaces the rules only if they are still the expected ones.
+     * @param expected
+     * @param newRules
+     * @return boolean
+     */
+    public boolean compareAndSetRules(CompiledPricingRules expected, CompiledPricingRules newRules) {
+        if (newRules == null) {
+            throw new IllegalArgumentException("Rules must not be null");
+        }
+        return rules.compareAndSet(expected, newRules);
+    }
+
+    public double getFinalPrice(Product p) {
+        return rules.get().getFinalPrice(p);
+    }
+
+    /**
+     * Stores the final price of every row in out[row], all with the same
+     * rules even if they are swapped during the pass.
+     * @param catalog
+     * @param out
+     */
+    public void getFinalPrices(ProductCatalog catalog, double[] out) {
+        rules.get().getFinalPrices(catalog, out);
+    }
+
+    /**
+     * Sets the discount of every row with the current rules and returns
+     * the number of rows that changed.
+     * @param catalog
+     * @return int
+     */
+    public int apply(ProductCatalog catalog) {
+        return rules.get().apply(catalog);
+    }
+}
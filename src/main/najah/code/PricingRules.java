@@ -0,0 +1,86 @@
+package main.najah.code;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A set of discount rules, compiled with compile() into the form used
+ * for pricing:
+ *
+ * - tier(x, d): d% off products priced above x; of several tiers only
+ *   the one with the highest threshold below the price applies
+ * - categoryDiscount(c, d): d% off every product of category c
+ * - categoryCap(c, m): products of category c get at most m% in total
+ * - maxDiscount(m): no product gets more than m% in total (default 50)
+ *
+ * A tier and a category discount stack by adding up, then the category
+ * cap and the maximum are applied. Every percentage follows the 0-50%
+ * rule of Product.applyDiscount. The result replaces a product's own
+ * discount; it is not stacked on it, so pricing twice gives the same
+ * result.
+ */
+public class PricingRules {
+
+    private final TreeMap<Double, Double> tiers = new TreeMap<Double, Double>();
+    private final Map<String, Double> categoryDiscounts = new HashMap<String, Double>();
+    private final Map<String, Double> categoryCaps = new HashMap<String, Double>();
+    private double maxDiscount = 50;
+
+    /**
+     * Adds a tier, replacing any tier with the same threshold.
+     * @param threshold
+     * @param discountPercentage
+     * @return PricingRules
+     */
+    public PricingRules tier(double threshold, double discountPercentage) {
+        if (!(threshold >= 0) || threshold == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Threshold must be a non-negative number");
+        }
+        ProductCatalog.checkDiscount(discountPercentage);
+        tiers.put(threshold, discountPercentage);
+        return this;
+    }
+
+    public PricingRules categoryDiscount(String category, double discountPercentage) {
+        checkCategory(category);
+        ProductCatalog.checkDiscount(discountPercentage);
+        categoryDiscounts.put(category, discountPercentage);
+        return this;
+    }
+
+    public PricingRules categoryCap(String category, double maxPercentage) {
+        checkCategory(category);
+        ProductCatalog.checkDiscount(maxPercentage);
+        categoryCaps.put(category, maxPercentage);
+        return this;
+    }
+
+    public PricingRules maxDiscount(double maxPercentage) {
+        ProductCatalog.checkDiscount(maxPercentage);
+        maxDiscount = maxPercentage;
+        return this;
+    }
+
+    /**
+     * Returns the rules in their compiled form. Later changes to these
+     * rules do not affect it.
+     * @return CompiledPricingRules
+     */
+    public CompiledPricingRules compile() {
+        double[] thresholds = new double[tiers.size()];
+        double[] tierDiscounts = new double[tiers.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> tier : tiers.entrySet()) {
+            thresholds[i] = tier.getKey();
+            tierDiscounts[i++] = tier.getValue();
+        }
+        return new CompiledPricingRules(thresholds, tierDiscounts, categoryDiscounts, categoryCaps, maxDiscount);
+    }
+
+    private static void checkCategory(String category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category must not be null");
+        }
+    }
+}
@@ -1,28 +1,122 @@
 package main.najah.code;
 
+import java.math.RoundingMode;
+
 public class Product {
     private String name;
-    private double price;
-    private double discount = 0;
+    private String category = "";
+    /** Price, discount and change count, replaced as a whole on every change */
+    private volatile Pricing pricing;
+    /** Final price for the change count it was computed at, filled lazily */
+    private volatile FinalPrice finalPrice;
 
     public Product(String name, double price) {
         if (price < 0) throw new IllegalArgumentException("Price must be non-negative");
         this.name = name;
-        this.price = price;
+        this.pricing = new Pricing(price, 0, 0);
+    }
+
+    public Product(String name, double price, String category) {
+        this(name, price);
+        if (category == null) throw new IllegalArgumentException("Category must not be null");
+        this.category = category;
     }
 
     public void applyDiscount(double discountPercentage) {
         if (discountPercentage < 0 || discountPercentage > 50) {
             throw new IllegalArgumentException("Invalid discount");
         }
-        this.discount = discountPercentage;
+        setCheckedDiscount(discountPercentage);
+    }
+
+    /**
+     * Sets a discount already validated by the caller and returns true
+     * if it changed. Used by bulk updates that validate once per batch.
+     */
+    synchronized boolean setCheckedDiscount(double discountPercentage) {
+        Pricing current = pricing;
+        if (Double.compare(current.discount, discountPercentage) == 0) {
+            return false;
+        }
+        pricing = new Pricing(current.price, discountPercentage, current.changes + 1);
+        return true;
     }
 
+    /**
+     * Changes the price, e.g. when a supplier changes the cost of an
+     * ingredient. Counts as a change like a new discount.
+     * @param price
+     */
+    public synchronized void setPrice(double price) {
+        if (price < 0) throw new IllegalArgumentException("Price must be non-negative");
+        Pricing current = pricing;
+        if (Double.compare(current.price, price) != 0) {
+            pricing = new Pricing(price, current.discount, current.changes + 1);
+        }
+    }
+
+    /**
+     * Returns the final price, computed once per price or discount change
+     * and then served from a cache that readers use without locking.
+     */
     public double getFinalPrice() {
-        return price * (1 - discount / 100);
+        Pricing p = pricing;
+        FinalPrice cached = finalPrice;
+        if (cached != null && cached.changes == p.changes) {
+            return cached.value;
+        }
+        //Racing readers may store an older entry; it fails the check above
+        //and is recomputed, so a stale price is never returned
+        double value = p.price * (1 - p.discount / 100);
+        finalPrice = new FinalPrice(p.changes, value);
+        return value;
+    }
+
+    /**
+     * Returns the number of times the price or discount has changed. A
+     * caller that saw the same count before can reuse what it derived
+     * from the price.
+     * @return long
+     */
+    public long getChangeCount() {
+        return pricing.changes;
+    }
+
+    /**
+     * Returns the final price in cents, computed exactly from the price
+     * and discount read as whole cents and basis points, rounded once.
+     * @param mode
+     * @return long
+     */
+    public long getFinalPriceCents(RoundingMode mode) {
+        Pricing p = pricing;
+        return Money.finalPrice(Money.toCents(p.price), Money.toBasisPoints(p.discount), mode);
     }
 
     public String getName() { return name; }
-    public double getPrice() { return price; }
-    public double getDiscount() { return discount; }
+    public double getPrice() { return pricing.price; }
+    public double getDiscount() { return pricing.discount; }
+    public String getCategory() { return category; }
+
+    private static final class Pricing {
+        final double price;
+        final double discount;
+        final long changes;
+
+        Pricing(double price, double discount, long changes) {
+            this.price = price;
+            this.discount = discount;
+            this.changes = changes;
+        }
+    }
+
+    private static final class FinalPrice {
+        final long changes;
+        final double value;
+
+        FinalPrice(long changes, double value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
 }
@@ -0,0 +1,415 @@
+package main.najah.code;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented product catalog. Prices and discounts are kept in
+ * parallel double arrays indexed by row, categories as ids into a small
+ * table of category names and names in an open-addressing dictionary of
+ * row numbers, so a catalog costs about 24 bytes per product plus its
+ * name instead of a Product object, its header and a map entry. Product
+ * objects are only created by get(). Prefix and case-insensitive search
+ * go through a NameIndex of the rows, built on the first search and kept
+ * up to date by add() from then on.
+ *
+ * Final prices use the same formula as Product.getFinalPrice, so both
+ * give identical results. A ProductCatalog is not thread-safe.
+ */
+public class ProductCatalog {
+
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private String[] names;
+    private double[] prices;
+    private double[] discounts;
+    private int[] categories;
+    private String[] categoryNames = {""};
+    private final Map<String, Integer> categoryIds = new HashMap<String, Integer>(Map.of("", 0));
+    private int size;
+    /** Row + 1 of every product at its name's hash, 0 for a free slot */
+    private int[] index;
+    /** Rows by name for search, null until the first search */
+    private NameIndex<Integer> search;
+
+    /**
+     * Creates an empty catalog.
+     */
+    public ProductCatalog() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty catalog sized for the expected number of products.
+     * @param initialCapacity
+     */
+    public ProductCatalog(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative");
+        }
+        int capacity = Math.max(initialCapacity, 1);
+        int tableSize = tableSize(capacity);
+        names = new String[capacity];
+        prices = new double[capacity];
+        discounts = new double[capacity];
+        categories = new int[capacity];
+        index = new int[tableSize];
+    }
+
+    /**
+     * Creates a catalog holding a copy of every product, keeping the
+     * first of several products with the same name.
+     * @param products
+     * @return ProductCatalog
+     */
+    public static ProductCatalog of(Iterable<Product> products) {
+        ProductCatalog catalog = new ProductCatalog();
+        for (Product p : products) {
+            catalog.add(p);
+        }
+        return catalog;
+    }
+
+    /**
+     * Returns the number of products.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a copy of the product, with its discount, and returns its row,
+     * or -1 if a product with the same name is already in the catalog.
+     * @param p
+     * @return int
+     */
+    public int add(Product p) {
+        int row = add(p.getName(), p.getPrice(), p.getCategory());
+        if (row >= 0) {
+            discounts[row] = p.getDiscount();
+        }
+        return row;
+    }
+
+    /**
+     * Adds a product without discount and returns its row, or -1 if a
+     * product with the same name is already in the catalog.
+     * @param name
+     * @param price
+     * @return int
+     */
+    public int add(String name, double price) {
+        return add(name, price, "");
+    }
+
+    /**
+     * Adds a product of the category without discount and returns its
+     * row, or -1 if a product with the same name is already in the catalog.
+     * @param name
+     * @param price
+     * @param category
+     * @return int
+     */
+    public int add(String name, double price, String category) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must be non-negative");
+        }
+        if (category == null) {
+            throw new IllegalArgumentException("Category must not be null");
+        }
+        int slot = find(name);
+        if (index[slot] != 0) {
+            return -1;
+        }
+        if (size == names.length) {
+            grow();
+            slot = find(name);
+        }
+        int row = size++;
+        names[row] = name;
+        prices[row] = price;
+        categories[row] = categoryId(category);
+        index[slot] = row + 1;
+        if (search != null) {
+            search.add(row);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the row of the product with the given name or -1.
+     * @param name
+     * @return int
+     */
+    public int rowOf(String name) {
+        return name == null ? -1 : index[find(name)] - 1;
+    }
+
+    /**
+     * Returns up to limit rows whose name starts with the prefix, in name
+     * order.
+     * @param prefix
+     * @param limit
+     * @return int[]
+     */
+    public int[] rowsStartingWith(String prefix, int limit) {
+        return toRows(search().startingWith(prefix, limit));
+    }
+
+    /**
+     * Returns up to limit rows whose name starts with the prefix ignoring
+     * case, in name order.
+     * @param prefix
+     * @param limit
+     * @return int[]
+     */
+    public int[] rowsStartingWithIgnoreCase(String prefix, int limit) {
+        return toRows(search().startingWithIgnoreCase(prefix, limit));
+    }
+
+    /**
+     * Returns the rows whose name equals this one ignoring case.
+     * @param name
+     * @return int[]
+     */
+    public int[] rowsIgnoreCase(String name) {
+        return toRows(search().findIgnoreCase(name));
+    }
+
+    /**
+     * Returns a new Product with the name, price and discount of the row.
+     * @param row
+     * @return Product
+     */
+    public Product get(int row) {
+        checkRow(row);
+        Product p = new Product(names[row], prices[row], categoryNames[categories[row]]);
+        p.applyDiscount(discounts[row]);
+        return p;
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return names[row];
+    }
+
+    public double getPrice(int row) {
+        checkRow(row);
+        return prices[row];
+    }
+
+    public double getDiscount(int row) {
+        checkRow(row);
+        return discounts[row];
+    }
+
+    public String getCategory(int row) {
+        checkRow(row);
+        return categoryNames[categories[row]];
+    }
+
+    public void setPrice(int row, double price) {
+        checkRow(row);
+        if (price < 0) {
+            throw new IllegalArgumentException("Price must be non-negative");
+        }
+        prices[row] = price;
+    }
+
+    /**
+     * Sets the discount of the row, with the validation of Product.applyDiscount.
+     * @param row
+     * @param discountPercentage
+     */
+    public void applyDiscount(int row, double discountPercentage) {
+        checkRow(row);
+        checkDiscount(discountPercentage);
+        discounts[row] = discountPercentage;
+    }
+
+    /**
+     * Sets every discount to a value already validated by the caller, in
+     * parallel, and returns the number of rows that changed.
+     */
+    int setCheckedDiscounts(final double discountPercentage) {
+        final double[] discounts = this.discounts;
+        return (int) IntStream.range(0, size).parallel().filter(row -> {
+            if (Double.compare(discounts[row], discountPercentage) == 0) {
+                return false;
+            }
+            discounts[row] = discountPercentage;
+            return true;
+        }).count();
+    }
+
+    /**
+     * Returns the final price of the row as Product.getFinalPrice would.
+     * @param row
+     * @return double
+     */
+    public double getFinalPrice(int row) {
+        checkRow(row);
+        return prices[row] * (1 - discounts[row] / 100);
+    }
+
+    /**
+     * Stores the final price of every row in out[row].
+     * @param out
+     */
+    public void getFinalPrices(double[] out) {
+        getFinalPrices(0, size, out, 0);
+    }
+
+    /**
+     * Stores the final prices of rows [from, to) in out, starting at offset.
+     * @param from
+     * @param to
+     * @param out
+     * @param offset
+     */
+    public void getFinalPrices(int from, int to, double[] out, int offset) {
+        Objects.checkFromToIndex(from, to, size);
+        Objects.checkFromIndexSize(offset, to - from, out.length);
+        double[] prices = this.prices;
+        double[] discounts = this.discounts;
+        for (int i = from, j = offset; i < to; i++, j++) {
+            out[j] = prices[i] * (1 - discounts[i] / 100);
+        }
+    }
+
+    /**
+     * Stores the final prices of rows [from, to) in cents in out, starting
+     * at offset, rounded as Product.getFinalPriceCents would.
+     * @param from
+     * @param to
+     * @param out
+     * @param offset
+     * @param mode
+     */
+    public void getFinalPricesCents(int from, int to, long[] out, int offset, RoundingMode mode) {
+        Objects.checkFromToIndex(from, to, size);
+        Objects.checkFromIndexSize(offset, to - from, out.length);
+        Objects.requireNonNull(mode);
+        double[] prices = this.prices;
+        double[] discounts = this.discounts;
+        for (int i = from, j = offset; i < to; i++, j++) {
+            out[j] = Money.finalPrice(Money.toCents(prices[i]), Money.toBasisPoints(discounts[i]), mode);
+        }
+    }
+
+    /**
+     * Returns the number of distinct categories; ids run from 0, the
+     * empty category, to categoryCount() - 1.
+     */
+    int categoryCount() {
+        return categoryIds.size();
+    }
+
+    String categoryName(int id) {
+        return categoryNames[id];
+    }
+
+    /**
+     * The raw columns for bulk passes in this package; only rows
+     * [0, size) are valid and the arrays are replaced when the catalog grows.
+     */
+    double[] priceColumn() {
+        return prices;
+    }
+
+    double[] discountColumn() {
+        return discounts;
+    }
+
+    int[] categoryColumn() {
+        return categories;
+    }
+
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categoryIds.size();
+            if (id == categoryNames.length) {
+                categoryNames = Arrays.copyOf(categoryNames, id * 2);
+            }
+            categoryNames[id] = category;
+            categoryIds.put(category, id);
+        }
+        return id;
+    }
+
+    static void checkDiscount(double discountPercentage) {
+        if (discountPercentage < 0 || discountPercentage > 50) {
+            throw new IllegalArgumentException("Invalid discount");
+        }
+    }
+
+    private NameIndex<Integer> search() {
+        if (search == null) {
+            NameIndex<Integer> rows = new NameIndex<Integer>(row -> names[row]);
+            rows.addAll(() -> IntStream.range(0, size).boxed().iterator());
+            search = rows;
+        }
+        return search;
+    }
+
+    private static int[] toRows(List<Integer> rows) {
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+        }
+    }
+
+    /**
+     * Returns the index slot holding the name, or the free slot where it
+     * would go.
+     */
+    private int find(String name) {
+        int mask = index.length - 1;
+        int h = name.hashCode() * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (index[slot] != 0 && !name.equals(names[index[slot] - 1])) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        //Checked before copying anything, so a catalog that cannot grow stays intact
+        int[] table = new int[tableSize(capacity)];
+        names = Arrays.copyOf(names, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        index = table;
+        for (int row = 0; row < size; row++) {
+            index[find(names[row])] = row + 1;
+        }
+    }
+
+    /**
+     * Keeps the dictionary at most half full. Computed in long, since the
+     * table of a capacity above 2^29 does not fit the largest int array
+     * size that is a power of two.
+     */
+    private static int tableSize(int capacity) {
+        long tableSize = Long.highestOneBit(Math.max(capacity, 2) * 2L - 1) * 2;
+        if (tableSize > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        }
+        return (int) tableSize;
+    }
+}
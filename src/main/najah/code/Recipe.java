@@ -6,6 +6,11 @@ package main.najah.code;
  * @author Eng
  */
 public class Recipe {
+    /** Status returned by the parse methods for text that is not an integer */
+    public static final int NOT_A_NUMBER = -1;
+    /** Status returned by the parse methods for a negative integer */
+    public static final int NEGATIVE = -2;
+
     private String name;
     private int price;
     private int amtCoffee;
@@ -35,12 +40,12 @@ public class Recipe {
 	 * @param amtChocolate   The amtChocolate to set.
 	 */
     public void setAmtChocolate(String chocolate) throws RecipeException {
-    	int amtChocolate = 0;
-    	try {
-    		amtChocolate = Integer.parseInt(chocolate);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of chocolate must be a positive integer");
-    	}
+    	setAmtChocolate(parseAmount(chocolate));
+	}
+    /**
+	 * @param amtChocolate   The amtChocolate to set.
+	 */
+    public void setAmtChocolate(int amtChocolate) throws RecipeException {
 		if (amtChocolate >= 0) {
 			this.amtChocolate = amtChocolate;
 		} else {
@@ -57,12 +62,12 @@ public class Recipe {
 	 * @param amtCoffee   The amtCoffee to set.
 	 */
     public void setAmtCoffee(String coffee) throws RecipeException {
-    	int amtCoffee = 0;
-    	try {
-    		amtCoffee = Integer.parseInt(coffee);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of coffee must be a positive integer");
-    	}
+    	setAmtCoffee(parseAmount(coffee));
+	}
+    /**
+	 * @param amtCoffee   The amtCoffee to set.
+	 */
+    public void setAmtCoffee(int amtCoffee) throws RecipeException {
 		if (amtCoffee >= 0) {
 			this.amtCoffee = amtCoffee;
 		} else {
@@ -78,13 +83,13 @@ public class Recipe {
     /**
 	 * @param amtMilk   The amtMilk to set.
 	 */
-    public void setAmtMilk(String milk) throws RecipeException{
-    	int amtMilk = 0;
-    	try {
-    		amtMilk = Integer.parseInt(milk);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of milk must be a positive integer");
-    	}
+    public void setAmtMilk(String milk) throws RecipeException {
+    	setAmtMilk(parseAmount(milk));
+	}
+    /**
+	 * @param amtMilk   The amtMilk to set.
+	 */
+    public void setAmtMilk(int amtMilk) throws RecipeException {
 		if (amtMilk >= 0) {
 			this.amtMilk = amtMilk;
 		} else {
@@ -101,12 +106,12 @@ public class Recipe {
 	 * @param amtSugar   The amtSugar to set.
 	 */
     public void setAmtSugar(String sugar) throws RecipeException {
-    	int amtSugar = 0;
-    	try {
-    		amtSugar = Integer.parseInt(sugar);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Units of sugar must be a positive integer");
-    	}
+    	setAmtSugar(parseAmount(sugar));
+	}
+    /**
+	 * @param amtSugar   The amtSugar to set.
+	 */
+    public void setAmtSugar(int amtSugar) throws RecipeException {
 		if (amtSugar >= 0) {
 			this.amtSugar = amtSugar;
 		} else {
@@ -137,18 +142,103 @@ public class Recipe {
 	 * @param price   The price to set.
 	 */
     public void setPrice(String price) throws RecipeException{
-    	int amtPrice = 0;
-    	try {
-    		amtPrice = Integer.parseInt(price);
-    	} catch (NumberFormatException e) {
-    		throw new RecipeException("Price must be a positive integer");
-    	}
-		if (amtPrice >= 0) {
-			this.price = amtPrice;
+    	setPrice(parseAmount(price));
+	}
+    /**
+	 * @param price   The price to set.
+	 */
+    public void setPrice(int price) throws RecipeException{
+		if (price >= 0) {
+			this.price = price;
 		} else {
 			throw new RecipeException("Price must be a positive integer");
 		}
-	} 
+	}
+
+    /**
+     * Parses a price or an amount the way the String setters do, without
+     * allocating or throwing. Returns the value, or NOT_A_NUMBER or
+     * NEGATIVE if the setters would reject the text.
+     * @param text
+     * @return int
+     */
+    public static int parseAmount(CharSequence text) {
+    	return text == null ? NOT_A_NUMBER : parseAmount(text, 0, text.length());
+    }
+
+    /**
+     * Parses the characters from (inclusive) to to (exclusive) of text.
+     * @see #parseAmount(CharSequence)
+     * @return int
+     */
+    public static int parseAmount(CharSequence text, int from, int to) {
+    	if (from >= to) {
+    		return NOT_A_NUMBER;
+    	}
+    	char first = text.charAt(from);
+    	boolean negative = first == '-';
+    	int i = (negative || first == '+') ? from + 1 : from;
+    	if (i == to) {
+    		return NOT_A_NUMBER;
+    	}
+    	long value = 0;
+    	for (; i < to; i++) {
+    		char c = text.charAt(i);
+    		int digit = c - '0';
+    		if (digit < 0 || digit > 9) {
+    			//Integer.parseInt also takes non-ASCII decimal digits
+    			digit = c < 128 ? -1 : Character.digit(c, 10);
+    			if (digit < 0) {
+    				return NOT_A_NUMBER;
+    			}
+    		}
+    		value = value * 10 + digit;
+    		if (value > Integer.MAX_VALUE + 1L) {
+    			return NOT_A_NUMBER;
+    		}
+    	}
+    	return checkRange(value, negative);
+    }
+
+    /**
+     * Parses the ASCII bytes from (inclusive) to to (exclusive) of bytes.
+     * @see #parseAmount(CharSequence)
+     * @return int
+     */
+    public static int parseAmount(byte[] bytes, int from, int to) {
+    	if (from >= to) {
+    		return NOT_A_NUMBER;
+    	}
+    	byte first = bytes[from];
+    	boolean negative = first == '-';
+    	int i = (negative || first == '+') ? from + 1 : from;
+    	if (i == to) {
+    		return NOT_A_NUMBER;
+    	}
+    	long value = 0;
+    	for (; i < to; i++) {
+    		int digit = bytes[i] - '0';
+    		if (digit < 0 || digit > 9) {
+    			return NOT_A_NUMBER;
+    		}
+    		value = value * 10 + digit;
+    		if (value > Integer.MAX_VALUE + 1L) {
+    			return NOT_A_NUMBER;
+    		}
+    	}
+    	return checkRange(value, negative);
+    }
+
+    /**
+     * Integer.parseInt accepts "-0" and values down to -2147483648,
+     * which the setters then reject as negative.
+     */
+    private static int checkRange(long value, boolean negative) {
+    	if (negative) {
+    		return value == 0 ? 0 : NEGATIVE;
+    	}
+    	return value > Integer.MAX_VALUE ? NOT_A_NUMBER : (int) value;
+    }
     
     /**
      * Returns the name of the recipe.
@@ -1,50 +1,283 @@
 package main.najah.code;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recipes of the coffee maker. Reads are lock-free and always see one
+ * published version of the book; writers serialize on the book and
+ * publish a new version when they are done.
+ *
+ * Versions are persistent: a new version copies only the O(log n) nodes
+ * it changes and shares everything else with the version before it, so
+ * the book keeps its most recent versions around for point-in-time reads
+ * and rollback at little cost. Versions share their Recipe objects, which
+ * must not be modified once added. History is kept in memory only.
+ *
+ * A book created with open() is persistent: every change is journaled
+ * before the writer returns and the journal is compacted into a snapshot
+ * that is memory mapped the next time the book is opened.
+ */
 public class RecipeBook {
-	
-	/** Array of recipes in coffee maker*/
-	private Recipe [] recipeArray;
-	/** Number of recipes in coffee maker */
-	private final int NUM_RECIPES = 4; 
-	
+
+	/** Number of versions kept by default, including the current one */
+	public static final int DEFAULT_HISTORY_LIMIT = 64;
+
+	/** Current version of the book, replaced as a whole by writers */
+	private volatile Version current;
+	/** Recent versions, each at its number modulo the length */
+	private volatile AtomicReferenceArray<Version> history;
+	/** Journal and snapshot files, or null for an in-memory book */
+	private final RecipeStore store;
+	/** Runs scheduled compactions of a persistent book */
+	private ScheduledExecutorService compactor;
+
 	/**
 	 * Default constructor for a RecipeBook.
 	 */
 	public RecipeBook() {
-		recipeArray = new Recipe[NUM_RECIPES];
+		this(null, new Version(0, RecipeVector.EMPTY, RecipeNameIndex.EMPTY));
+	}
+
+	private RecipeBook(RecipeStore store, Version initial) {
+		this.store = store;
+		this.current = initial;
+		this.history = new AtomicReferenceArray<Version>(DEFAULT_HISTORY_LIMIT);
+		this.history.set(0, initial);
+	}
+
+	private static Version recovered(RecipeStore.Contents contents) {
+		Object edit = new Object();
+		RecipeVector slots = RecipeVector.EMPTY;
+		RecipeNameIndex names = RecipeNameIndex.EMPTY;
+		for (int i = 0; i < contents.size; i++) {
+			names = index(names, contents.recipes[i], i, edit);
+			slots = slots.append(contents.recipes[i], edit);
+		}
+		return new Version(0, slots, names);
+	}
+
+	/**
+	 * Opens the persistent RecipeBook kept in the given directory,
+	 * creating it if it does not exist yet.
+	 * @param directory
+	 * @return RecipeBook
+	 * @throws IOException
+	 */
+	public static RecipeBook open(Path directory) throws IOException {
+		RecipeStore store = new RecipeStore(directory);
+		return new RecipeBook(store, recovered(store.recover()));
+	}
+
+	/**
+	 * Opens a persistent RecipeBook that compacts its journal into a new
+	 * snapshot every compactionInterval milliseconds.
+	 * @param directory
+	 * @param compactionInterval
+	 * @return RecipeBook
+	 * @throws IOException
+	 */
+	public static RecipeBook open(Path directory, long compactionInterval) throws IOException {
+		if (compactionInterval <= 0) {
+			throw new IllegalArgumentException("Compaction interval must be positive");
+		}
+		final RecipeBook book = open(directory);
+		book.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "recipe-compactor");
+			t.setDaemon(true);
+			return t;
+		});
+		book.compactor.scheduleWithFixedDelay(() -> {
+			try {
+				book.compact();
+			} catch (IOException e) {
+				//The journal still holds every change, so a failed
+				//compaction loses nothing and the next run retries
+			}
+		}, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+		return book;
 	}
-	
+
 	/**
-	 * Returns the recipe array.
-	 * @param r
+	 * Returns a copy of the recipe slots of the current version.
 	 * @return Recipe[]
 	 */
-	public synchronized Recipe[] getRecipes() {
-		return recipeArray;
-	}
-	
-	public synchronized boolean addRecipe(Recipe r) {
-		//Assume recipe doesn't exist in the array until 
-		//find out otherwise
-		boolean exists = false;
-		//Check that recipe doesn't already exist in array
-		for (int i = 0; i < recipeArray.length; i++ ) {
-			if (r.equals(recipeArray[i])) {
-				exists = true;
+	public Recipe[] getRecipes() {
+		return current.getRecipes();
+	}
+
+	/**
+	 * Returns a read-only view of the recipe slots of the current version.
+	 * The view does not change when the book is modified afterwards.
+	 * @return List
+	 */
+	public List<Recipe> getRecipeList() {
+		return current.getRecipeList();
+	}
+
+	/**
+	 * Returns the number of recipes held by the book.
+	 * @return int
+	 */
+	public int size() {
+		return current.size();
+	}
+
+	/**
+	 * Returns the recipe with the given name or null if there is none.
+	 * @param name
+	 * @return Recipe
+	 */
+	public Recipe getRecipe(String name) {
+		return current.getRecipe(name);
+	}
+
+	/**
+	 * Returns the slot id of the recipe with the given name
+	 * and -1 if the recipe does not exist.
+	 * @param name
+	 * @return int
+	 */
+	public int indexOf(String name) {
+		return current.indexOf(name);
+	}
+
+	/**
+	 * Looks up the first count names against one version of the book and
+	 * stores each recipe, or null if there is none, at the same position
+	 * of out. Returns the number of recipes found.
+	 * @param names
+	 * @param count
+	 * @param out
+	 * @return int
+	 */
+	public int getRecipes(String[] names, int count, Recipe[] out) {
+		Version v = current;
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			out[i] = v.getRecipe(names[i]);
+			if (out[i] != null) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the current version of the book.
+	 * @return Version
+	 */
+	public Version getCurrentVersion() {
+		return current;
+	}
+
+	/**
+	 * Returns the version with the given number, or null if it is not
+	 * one of the versions the book still keeps.
+	 * @param number
+	 * @return Version
+	 */
+	public Version getVersion(long number) {
+		AtomicReferenceArray<Version> h = history;
+		if (number < 0) {
+			return null;
+		}
+		Version v = h.get((int) (number % h.length()));
+		return v != null && v.number == number ? v : null;
+	}
+
+	/**
+	 * Returns the number of versions the book keeps, including the current one.
+	 * @return int
+	 */
+	public int getHistoryLimit() {
+		return history.length();
+	}
+
+	/**
+	 * Sets the number of versions the book keeps, including the current
+	 * one. Lowering the limit drops the oldest versions.
+	 * @param limit
+	 */
+	public synchronized void setHistoryLimit(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("History limit must be positive");
+		}
+		AtomicReferenceArray<Version> h = new AtomicReferenceArray<Version>(limit);
+		long newest = current.number;
+		for (long n = Math.max(0, newest - limit + 1); n <= newest; n++) {
+			Version v = getVersion(n);
+			if (v != null) {
+				h.set((int) (n % limit), v);
+			}
+		}
+		history = h;
+	}
+
+	public boolean addRecipe(Recipe r) {
+		long seq;
+		synchronized (this) {
+			Version v = current;
+			//Recipes are unique by name, so the index answers
+			//the duplicate check without scanning the slots
+			if (v.names.get(r.getName()) >= 0) {
+				return false;
 			}
+			int slot = v.slots.size();
+			seq = log(RecipeStore.APPEND, slot, r);
+			publish(v.slots.append(r, null), index(v.names, r, slot, null));
 		}
-		//Assume recipe cannot be added until find an empty
-		//spot
-		boolean added = false;
-		//Check for first empty spot in array
-		if (!exists) {
-			for (int i = 0; i < recipeArray.length && !added; i++) {
-				if (recipeArray[i] == null) {
-					recipeArray[i] = r;
-					added = true;
+		sync(seq);
+		return true;
+	}
+
+	/**
+	 * Adds every recipe that is not already in the book and publishes
+	 * them as a single new version. Returns the number of recipes added.
+	 * @param recipes
+	 * @return int
+	 */
+	public int addRecipes(Iterable<? extends Recipe> recipes) {
+		long seq = 0;
+		int added = 0;
+		synchronized (this) {
+			Version v = current;
+			//One token for the whole batch: nodes copied for the first
+			//recipe are updated in place for the ones that follow
+			Object edit = new Object();
+			RecipeVector slots = v.slots;
+			RecipeNameIndex names = v.names;
+			boolean journalFailed = false;
+			try {
+				for (Recipe r : recipes) {
+					if (names.get(r.getName()) < 0) {
+						try {
+							seq = log(RecipeStore.APPEND, slots.size(), r);
+						} catch (UncheckedIOException | IllegalStateException e) {
+							journalFailed = true;
+							throw e;
+						}
+						names = index(names, r, slots.size(), edit);
+						slots = slots.append(r, edit);
+						added++;
+					}
+				}
+			} finally {
+				//Publish what was journaled even if the iteration failed,
+				//unless the journal itself failed and will never write it
+				if (added > 0 && !journalFailed) {
+					publish(slots, names);
 				}
 			}
 		}
+		sync(seq);
 		return added;
 	}
 
@@ -54,16 +287,40 @@ public class RecipeBook {
 	 * @param recipeToDelete
 	 * @return String
 	 */
-	public synchronized String deleteRecipe(int recipeToDelete) {
-		if (recipeArray[recipeToDelete] != null) {
-			String recipeName = recipeArray[recipeToDelete].getName();
-			recipeArray[recipeToDelete] = new Recipe();
-			return recipeName;
-		} else {
-			return null;
+	public String deleteRecipe(int recipeToDelete) {
+		String recipeName;
+		long seq;
+		synchronized (this) {
+			Version v = current;
+			if (!v.isOccupied(recipeToDelete)) {
+				return null;
+			}
+			recipeName = v.slots.get(recipeToDelete).getName();
+			seq = replace(recipeToDelete, new Recipe());
+		}
+		sync(seq);
+		return recipeName;
+	}
+
+	/**
+	 * Returns the name of the recipe deleted with the name specified
+	 * and null if the recipe does not exist.
+	 * @param name
+	 * @return String
+	 */
+	public String deleteRecipe(String name) {
+		long seq;
+		synchronized (this) {
+			int slot = current.names.get(name);
+			if (slot < 0) {
+				return null;
+			}
+			seq = replace(slot, new Recipe());
 		}
+		sync(seq);
+		return name;
 	}
-	
+
 	/**
 	 * Returns the name of the recipe edited at the position specified
 	 * and null if the recipe does not exist.
@@ -71,15 +328,232 @@ public class RecipeBook {
 	 * @param newRecipe
 	 * @return String
 	 */
-	public synchronized String editRecipe(int recipeToEdit, Recipe newRecipe) {
-		if (recipeArray[recipeToEdit] != null) {
-			String recipeName = recipeArray[recipeToEdit].getName();
+	public String editRecipe(int recipeToEdit, Recipe newRecipe) {
+		String recipeName;
+		long seq;
+		synchronized (this) {
+			Version v = current;
+			if (!v.isOccupied(recipeToEdit)) {
+				return null;
+			}
+			recipeName = v.slots.get(recipeToEdit).getName();
 			newRecipe.setName("");
-			recipeArray[recipeToEdit] = newRecipe;
-			return recipeName;
-		} else {
-			return null;
+			seq = replace(recipeToEdit, newRecipe);
+		}
+		sync(seq);
+		return recipeName;
+	}
+
+	/**
+	 * Makes the contents of an earlier version current again, as a new
+	 * version. Returns false if the book no longer keeps that version.
+	 * @param number
+	 * @return boolean
+	 */
+	public boolean rollback(long number) {
+		long seq = 0;
+		synchronized (this) {
+			Version target = getVersion(number);
+			if (target == null) {
+				return false;
+			}
+			Version v = current;
+			if (store != null) {
+				seq = logDifference(v, target);
+			}
+			publish(target.slots, target.names);
 		}
+		sync(seq);
+		return true;
 	}
 
+	/**
+	 * Journals the changes that turn version from into version to.
+	 * Called with the book's lock held.
+	 */
+	private long logDifference(Version from, Version to) {
+		long seq = 0;
+		int fromSize = from.slots.size();
+		int toSize = to.slots.size();
+		for (int i = 0; i < Math.min(fromSize, toSize); i++) {
+			Recipe r = to.slots.get(i);
+			if (r != from.slots.get(i)) {
+				seq = log(RecipeStore.SET, i, r);
+			}
+		}
+		for (int i = fromSize; i < toSize; i++) {
+			seq = log(RecipeStore.APPEND, i, to.slots.get(i));
+		}
+		if (toSize < fromSize) {
+			seq = log(RecipeStore.TRUNCATE, toSize, new Recipe());
+		}
+		return seq;
+	}
+
+	/**
+	 * Puts r in the given slot and publishes the result.
+	 * Called with the book's lock held.
+	 */
+	private long replace(int slot, Recipe r) {
+		Version v = current;
+		long seq = log(RecipeStore.SET, slot, r);
+		RecipeNameIndex names = v.names.remove(v.slots.get(slot).getName(), slot, null);
+		publish(v.slots.set(slot, r, null), index(names, r, slot, null));
+		return seq;
+	}
+
+	/**
+	 * Empty names mark cleared slots and are not indexed.
+	 */
+	private static RecipeNameIndex index(RecipeNameIndex names, Recipe r, int slot, Object edit) {
+		return r.getName().isEmpty() ? names : names.put(r.getName(), slot, edit);
+	}
+
+	/**
+	 * Makes the given contents the next version of the book.
+	 * Called with the book's lock held.
+	 */
+	private void publish(RecipeVector slots, RecipeNameIndex names) {
+		Version v = new Version(current.number + 1, slots, names);
+		AtomicReferenceArray<Version> h = history;
+		h.set((int) (v.number % h.length()), v);
+		current = v;
+	}
+
+	/**
+	 * Writes the current version of a persistent book to a new snapshot
+	 * and drops the journal it replaces. Does nothing for an in-memory book.
+	 * @throws IOException
+	 */
+	public void compact() throws IOException {
+		if (store == null) {
+			return;
+		}
+		synchronized (store.compactionLock()) {
+			Version v;
+			long seq;
+			synchronized (this) {
+				v = current;
+				seq = store.roll();
+			}
+			Recipe[] recipes = v.getRecipes();
+			store.writeSnapshot(recipes, recipes.length, seq);
+		}
+	}
+
+	/**
+	 * Stops scheduled compaction and flushes the journal of a persistent
+	 * book. Does nothing for an in-memory book.
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (compactor != null) {
+			compactor.shutdownNow();
+		}
+		if (store != null) {
+			store.close();
+		}
+	}
+
+	/**
+	 * Journals a change of a persistent book. Called with the book's lock
+	 * held so the journal order matches the order of the versions, and
+	 * before the change is published: if the journal failed or the book
+	 * was closed this throws and the change is not made.
+	 */
+	private long log(byte op, int slot, Recipe r) {
+		if (store == null) {
+			return 0;
+		}
+		try {
+			return store.append(op, slot, r);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Waits for a journaled change to reach the disk. Called without the
+	 * book's lock so that concurrent writers share one flush.
+	 */
+	private void sync(long seq) {
+		if (store != null && seq > 0) {
+			try {
+				store.sync(seq);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * One published version of the book. A version never changes once it
+	 * is visible, so it can be read without locking while the book moves on.
+	 */
+	public static final class Version {
+		private final long number;
+		private final RecipeVector slots;
+		private final RecipeNameIndex names;
+
+		private Version(long number, RecipeVector slots, RecipeNameIndex names) {
+			this.number = number;
+			this.slots = slots;
+			this.names = names;
+		}
+
+		/**
+		 * @return   Returns the number of the version, counted from 0.
+		 */
+		public long getNumber() {
+			return number;
+		}
+
+		/**
+		 * Returns a copy of the recipe slots of this version.
+		 * @return Recipe[]
+		 */
+		public Recipe[] getRecipes() {
+			return slots.toArray();
+		}
+
+		/**
+		 * Returns a read-only view of the recipe slots of this version.
+		 * @return List
+		 */
+		public List<Recipe> getRecipeList() {
+			return Collections.unmodifiableList(slots.asList());
+		}
+
+		/**
+		 * Returns the number of recipes in this version.
+		 * @return int
+		 */
+		public int size() {
+			return names.size();
+		}
+
+		/**
+		 * Returns the recipe with the given name or null if there is none.
+		 * @param name
+		 * @return Recipe
+		 */
+		public Recipe getRecipe(String name) {
+			int slot = names.get(name);
+			return slot < 0 ? null : slots.get(slot);
+		}
+
+		/**
+		 * Returns the slot id of the recipe with the given name
+		 * and -1 if the recipe does not exist.
+		 * @param name
+		 * @return int
+		 */
+		public int indexOf(String name) {
+			return names.get(name);
+		}
+
+		boolean isOccupied(int slot) {
+			return slot >= 0 && slot < slots.size();
+		}
+	}
 }
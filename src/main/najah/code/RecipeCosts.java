@@ -0,0 +1,239 @@
+package main.najah.code;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Cost of goods and margin of recipes, from the final prices of the
+ * products bought as coffee, milk, sugar and chocolate. A recipe costs
+ * the sum of its ingredient amounts times the final price of one unit of
+ * each ingredient; its margin is Recipe.getPrice() minus that cost.
+ *
+ * Costs are cached. A dependency graph records which recipes use which
+ * ingredient, and refresh() recomputes only the recipes that use an
+ * ingredient product whose change count has moved since the last
+ * refresh. Lookups refresh first, so they always see current prices.
+ * Changing the amounts of a tracked recipe needs update(recipe).
+ */
+public class RecipeCosts {
+
+	private static final int COFFEE = 0;
+	private static final int MILK = 1;
+	private static final int SUGAR = 2;
+	private static final int CHOCOLATE = 3;
+	private static final int INGREDIENTS = 4;
+
+	private final Product[] ingredients;
+	/** Change count of every ingredient product when last priced */
+	private final long[] seen = new long[INGREDIENTS];
+	private final double[] unitCosts = new double[INGREDIENTS];
+	/** Ids of the recipes using each ingredient */
+	private final BitSet[] dependents = new BitSet[INGREDIENTS];
+	private final Map<Recipe, Integer> ids = new IdentityHashMap<Recipe, Integer>();
+	private Recipe[] recipes = new Recipe[16];
+	/** Ingredient amounts of every recipe id, INGREDIENTS per id */
+	private int[] amounts = new int[16 * INGREDIENTS];
+	private double[] costs = new double[16];
+	private int[] freeIds = new int[0];
+	private int freeCount;
+	private int nextId;
+
+	/**
+	 * Prices recipes with the products bought for each ingredient.
+	 */
+	public RecipeCosts(Product coffee, Product milk, Product sugar, Product chocolate) {
+		if (coffee == null || milk == null || sugar == null || chocolate == null) {
+			throw new IllegalArgumentException("Ingredient products must not be null");
+		}
+		ingredients = new Product[INGREDIENTS];
+		ingredients[COFFEE] = coffee;
+		ingredients[MILK] = milk;
+		ingredients[SUGAR] = sugar;
+		ingredients[CHOCOLATE] = chocolate;
+		for (int k = 0; k < INGREDIENTS; k++) {
+			dependents[k] = new BitSet();
+			seen[k] = ingredients[k].getChangeCount();
+			unitCosts[k] = ingredients[k].getFinalPrice();
+		}
+	}
+
+	/**
+	 * Starts tracking the recipe and returns true, or returns false if it
+	 * is already tracked.
+	 * @param r
+	 * @return boolean
+	 */
+	public synchronized boolean add(Recipe r) {
+		if (r == null) {
+			throw new IllegalArgumentException("Recipe must not be null");
+		}
+		if (ids.containsKey(r)) {
+			return false;
+		}
+		int id;
+		if (freeCount > 0) {
+			id = freeIds[--freeCount];
+		} else {
+			if (nextId == recipes.length) {
+				int capacity = recipes.length * 2;
+				recipes = Arrays.copyOf(recipes, capacity);
+				amounts = Arrays.copyOf(amounts, capacity * INGREDIENTS);
+				costs = Arrays.copyOf(costs, capacity);
+			}
+			id = nextId++;
+		}
+		ids.put(r, id);
+		recipes[id] = r;
+		link(id);
+		return true;
+	}
+
+	/**
+	 * Tracks every recipe, e.g. those of RecipeBook.getRecipeList().
+	 * @param recipes
+	 */
+	public synchronized void addAll(Iterable<? extends Recipe> recipes) {
+		for (Recipe r : recipes) {
+			add(r);
+		}
+	}
+
+	/**
+	 * Reads the amounts of a tracked recipe again after they changed and
+	 * returns true, or returns false if the recipe is not tracked.
+	 * @param r
+	 * @return boolean
+	 */
+	public synchronized boolean update(Recipe r) {
+		Integer id = ids.get(r);
+		if (id == null) {
+			return false;
+		}
+		unlink(id);
+		link(id);
+		return true;
+	}
+
+	/**
+	 * Stops tracking the recipe and returns true if it was tracked.
+	 * @param r
+	 * @return boolean
+	 */
+	public synchronized boolean remove(Recipe r) {
+		Integer id = ids.remove(r);
+		if (id == null) {
+			return false;
+		}
+		unlink(id);
+		recipes[id] = null;
+		if (freeCount == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, Math.max(16, freeCount * 2));
+		}
+		freeIds[freeCount++] = id;
+		return true;
+	}
+
+	/**
+	 * Returns the number of tracked recipes.
+	 * @return int
+	 */
+	public synchronized int size() {
+		return ids.size();
+	}
+
+	/**
+	 * Returns the cost of goods of a tracked recipe.
+	 * @param r
+	 * @return double
+	 */
+	public synchronized double getCost(Recipe r) {
+		Integer id = ids.get(r);
+		if (id == null) {
+			throw new IllegalArgumentException("Recipe is not tracked");
+		}
+		refresh();
+		return costs[id];
+	}
+
+	/**
+	 * Returns the price of a tracked recipe minus its cost of goods.
+	 * @param r
+	 * @return double
+	 */
+	public synchronized double getMargin(Recipe r) {
+		return r.getPrice() - getCost(r);
+	}
+
+	/**
+	 * Reprices the ingredients whose product changed since the last
+	 * refresh and recomputes the recipes using them. Returns the number
+	 * of recipes recomputed.
+	 * @return int
+	 */
+	public synchronized int refresh() {
+		BitSet dirty = null;
+		for (int k = 0; k < INGREDIENTS; k++) {
+			//Read the count before the price: a change in between is seen
+			//again by the next refresh instead of being missed
+			long changes = ingredients[k].getChangeCount();
+			if (changes == seen[k]) {
+				continue;
+			}
+			seen[k] = changes;
+			double unitCost = ingredients[k].getFinalPrice();
+			if (Double.compare(unitCost, unitCosts[k]) == 0) {
+				continue;
+			}
+			unitCosts[k] = unitCost;
+			if (dirty == null) {
+				dirty = (BitSet) dependents[k].clone();
+			} else {
+				dirty.or(dependents[k]);
+			}
+		}
+		if (dirty == null) {
+			return 0;
+		}
+		for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+			costs[id] = cost(id);
+		}
+		return dirty.cardinality();
+	}
+
+	/**
+	 * Records the amounts of the recipe, adds it to the dependents of
+	 * every ingredient it uses and computes its cost.
+	 */
+	private void link(int id) {
+		Recipe r = recipes[id];
+		int base = id * INGREDIENTS;
+		amounts[base + COFFEE] = r.getAmtCoffee();
+		amounts[base + MILK] = r.getAmtMilk();
+		amounts[base + SUGAR] = r.getAmtSugar();
+		amounts[base + CHOCOLATE] = r.getAmtChocolate();
+		for (int k = 0; k < INGREDIENTS; k++) {
+			if (amounts[base + k] != 0) {
+				dependents[k].set(id);
+			}
+		}
+		refresh();
+		costs[id] = cost(id);
+	}
+
+	private void unlink(int id) {
+		for (int k = 0; k < INGREDIENTS; k++) {
+			dependents[k].clear(id);
+		}
+	}
+
+	private double cost(int id) {
+		int base = id * INGREDIENTS;
+		double cost = 0;
+		for (int k = 0; k < INGREDIENTS; k++) {
+			cost += amounts[base + k] * unitCosts[k];
+		}
+		return cost;
+	}
+}
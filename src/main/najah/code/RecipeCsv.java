@@ -0,0 +1,255 @@
+package main.najah.code;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams recipes between a RecipeBook and a line-per-recipe text format:
+ *
+ *   name,price,coffee,milk,sugar,chocolate
+ *
+ * The name is everything before the last five commas, so it may itself
+ * contain commas. Files are read and written in large blocks through a
+ * channel, and numbers are parsed and formatted straight from and to the
+ * byte buffer. Rejected lines are collected in a RecipeImportReport.
+ *
+ * An import adds all its recipes with a single addRecipes() call, so
+ * readers of the book see either none or all of them.
+ */
+public class RecipeCsv {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int NUMBERS = 5;
+	private static final String[] MESSAGES = {
+		"Price must be a positive integer",
+		"Units of coffee must be a positive integer",
+		"Units of milk must be a positive integer",
+		"Units of sugar must be a positive integer",
+		"Units of chocolate must be a positive integer"
+	};
+
+	private RecipeCsv() {
+	}
+
+	/**
+	 * Adds every valid recipe of the file to the book.
+	 * @param file
+	 * @param book
+	 * @return RecipeImportReport
+	 * @throws IOException
+	 */
+	public static RecipeImportReport importRecipes(Path file, RecipeBook book) throws IOException {
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			return importRecipes(in, book);
+		}
+	}
+
+	/**
+	 * Adds every valid recipe read from the channel to the book.
+	 * @param in
+	 * @param book
+	 * @return RecipeImportReport
+	 * @throws IOException
+	 */
+	public static RecipeImportReport importRecipes(ReadableByteChannel in, RecipeBook book) throws IOException {
+		Importer importer = new Importer(book);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		boolean eof = false;
+		while (!eof) {
+			eof = in.read(buffer) < 0;
+			buffer.flip();
+			byte[] bytes = buffer.array();
+			int limit = buffer.limit();
+			int lineStart = 0;
+			for (int i = 0; i < limit; i++) {
+				if (bytes[i] == '\n') {
+					importer.line(bytes, lineStart, i);
+					lineStart = i + 1;
+				}
+			}
+			if (eof) {
+				importer.line(bytes, lineStart, limit);
+			} else {
+				buffer.position(lineStart);
+				buffer.compact();
+				if (!buffer.hasRemaining()) {
+					//A single line fills the whole buffer
+					buffer.flip();
+					buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+				}
+			}
+		}
+		return importer.finish();
+	}
+
+	/**
+	 * Writes every recipe of the book to the file, replacing its contents.
+	 * Returns the number of recipes written.
+	 * @param book
+	 * @param file
+	 * @return long
+	 * @throws IOException
+	 */
+	public static long exportRecipes(RecipeBook book, Path file) throws IOException {
+		try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			return exportRecipes(book, out);
+		}
+	}
+
+	/**
+	 * Writes every recipe of the book to the channel. Cleared slots are
+	 * skipped. Returns the number of recipes written.
+	 * @param book
+	 * @param out
+	 * @return long
+	 * @throws IOException
+	 */
+	public static long exportRecipes(RecipeBook book, WritableByteChannel out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] digits = new byte[10];
+		long written = 0;
+		for (Recipe r : book.getRecipeList()) {
+			String name = r.getName();
+			if (name.isEmpty()) {
+				continue;
+			}
+			//ASCII names are copied char by char, anything else is
+			//encoded; either way room for the numbers is kept
+			int needed = name.length() * 3 + NUMBERS * 11 + 1;
+			if (buffer.remaining() < needed) {
+				drain(buffer, out);
+				if (buffer.capacity() < needed) {
+					buffer = ByteBuffer.allocate(needed);
+				}
+			}
+			putName(buffer, name);
+			putNumber(buffer, r.getPrice(), digits);
+			putNumber(buffer, r.getAmtCoffee(), digits);
+			putNumber(buffer, r.getAmtMilk(), digits);
+			putNumber(buffer, r.getAmtSugar(), digits);
+			putNumber(buffer, r.getAmtChocolate(), digits);
+			buffer.put((byte) '\n');
+			written++;
+		}
+		drain(buffer, out);
+		return written;
+	}
+
+	private static void putName(ByteBuffer buffer, String name) throws IOException {
+		int length = name.length();
+		for (int i = 0; i < length; i++) {
+			char c = name.charAt(i);
+			if (c == '\n' || c == '\r') {
+				throw new IOException("Recipe name contains a line break: " + name);
+			}
+			if (c >= 0x80) {
+				//The rest is encoded in one go, so check it for line breaks first
+				for (int j = i + 1; j < length; j++) {
+					char d = name.charAt(j);
+					if (d == '\n' || d == '\r') {
+						throw new IOException("Recipe name contains a line break: " + name);
+					}
+				}
+				buffer.put(name.substring(i).getBytes(StandardCharsets.UTF_8));
+				return;
+			}
+			buffer.put((byte) c);
+		}
+	}
+
+	private static void putNumber(ByteBuffer buffer, int value, byte[] digits) {
+		buffer.put((byte) ',');
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value > 0);
+		while (n > 0) {
+			buffer.put(digits[--n]);
+		}
+	}
+
+	private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Parses lines into recipes and hands them to the book at the end.
+	 */
+	private static final class Importer {
+		final RecipeBook book;
+		final RecipeImportReport report = new RecipeImportReport();
+		final List<Recipe> recipes = new ArrayList<Recipe>();
+		final int[] commas = new int[NUMBERS];
+		final int[] values = new int[NUMBERS];
+		long lineNumber;
+
+		Importer(RecipeBook book) {
+			this.book = book;
+		}
+
+		void line(byte[] bytes, int from, int to) {
+			lineNumber++;
+			if (to > from && bytes[to - 1] == '\r') {
+				to--;
+			}
+			if (to == from) {
+				return;
+			}
+			report.lineRead();
+			int found = 0;
+			for (int i = to - 1; i >= from && found < NUMBERS; i--) {
+				if (bytes[i] == ',') {
+					commas[NUMBERS - 1 - found++] = i;
+				}
+			}
+			if (found < NUMBERS) {
+				report.error(lineNumber, "Expected a name and " + NUMBERS + " numbers");
+				return;
+			}
+			if (commas[0] == from) {
+				report.error(lineNumber, "Recipe name must not be empty");
+				return;
+			}
+			for (int f = 0; f < NUMBERS; f++) {
+				int end = f + 1 < NUMBERS ? commas[f + 1] : to;
+				values[f] = Recipe.parseAmount(bytes, commas[f] + 1, end);
+				if (values[f] < 0) {
+					report.error(lineNumber, MESSAGES[f]);
+					return;
+				}
+			}
+			Recipe r = new Recipe();
+			r.setName(new String(bytes, from, commas[0] - from, StandardCharsets.UTF_8));
+			try {
+				r.setPrice(values[0]);
+				r.setAmtCoffee(values[1]);
+				r.setAmtMilk(values[2]);
+				r.setAmtSugar(values[3]);
+				r.setAmtChocolate(values[4]);
+			} catch (RecipeException e) {
+				//Values were checked by parseAmount above
+				throw new IllegalStateException(e);
+			}
+			recipes.add(r);
+		}
+
+		RecipeImportReport finish() {
+			report.imported(book.addRecipes(recipes), recipes.size());
+			return report;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package main.najah.code;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk recipe import. Every rejected line is counted, but
+ * only the first MAX_MESSAGES are kept with their message.
+ */
+public class RecipeImportReport {
+
+	/** Largest number of error messages kept */
+	public static final int MAX_MESSAGES = 1000;
+
+	private long lines;
+	private long imported;
+	private long duplicates;
+	private long errors;
+	private final List<String> messages = new ArrayList<String>();
+
+	void lineRead() {
+		lines++;
+	}
+
+	void imported(int count, int offered) {
+		imported += count;
+		duplicates += offered - count;
+	}
+
+	void error(long line, String message) {
+		errors++;
+		if (messages.size() < MAX_MESSAGES) {
+			messages.add("Line " + line + ": " + message);
+		}
+	}
+
+	/**
+	 * @return   Returns the number of non-blank lines read.
+	 */
+	public long getLines() {
+		return lines;
+	}
+
+	/**
+	 * @return   Returns the number of recipes added to the book.
+	 */
+	public long getImported() {
+		return imported;
+	}
+
+	/**
+	 * @return   Returns the number of valid recipes whose name was already taken.
+	 */
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return   Returns the number of rejected lines.
+	 */
+	public long getErrorCount() {
+		return errors;
+	}
+
+	/**
+	 * @return   Returns the messages of the first rejected lines.
+	 */
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(messages);
+	}
+
+	public String toString() {
+		return "Read " + lines + " lines: " + imported + " imported, "
+				+ duplicates + " duplicates, " + errors + " errors";
+	}
+}
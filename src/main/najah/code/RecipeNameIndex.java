@@ -0,0 +1,263 @@
+package main.najah.code;
+
+/**
+ * Persistent map from recipe name to slot id: a hash array mapped trie
+ * where every update copies only the nodes on the path to the changed
+ * entry and shares the rest with the index it was made from. get, put
+ * and remove are O(log32 n).
+ *
+ * Edit tokens work as in RecipeVector: nodes created under a token are
+ * updated in place by later calls with the same token.
+ */
+final class RecipeNameIndex {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	static final RecipeNameIndex EMPTY = new RecipeNameIndex(0, null);
+
+	private final int size;
+	private final Node root;
+
+	private RecipeNameIndex(int size, Node root) {
+		this.size = size;
+		this.root = root;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the slot of the name, or -1 if the name is not indexed.
+	 */
+	int get(String name) {
+		if (root == null || name == null) {
+			return -1;
+		}
+		Integer slot = root.get(0, hash(name), name);
+		return slot == null ? -1 : slot;
+	}
+
+	RecipeNameIndex put(String name, int slot, Object edit) {
+		boolean[] added = new boolean[1];
+		Node start = root == null ? new BitmapNode(edit, 0, new Object[0]) : root;
+		Node newRoot = start.put(0, hash(name), name, slot, edit, added);
+		return new RecipeNameIndex(added[0] ? size + 1 : size, newRoot);
+	}
+
+	/**
+	 * Removes the name if it is mapped to the given slot.
+	 */
+	RecipeNameIndex remove(String name, int slot, Object edit) {
+		if (root == null) {
+			return this;
+		}
+		Node newRoot = root.remove(0, hash(name), name, slot, edit);
+		if (newRoot == root) {
+			return this;
+		}
+		return new RecipeNameIndex(size - 1, newRoot);
+	}
+
+	private static int hash(String name) {
+		int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private abstract static class Node {
+		final Object edit;
+
+		Node(Object edit) {
+			this.edit = edit;
+		}
+
+		abstract Integer get(int shift, int hash, String name);
+
+		abstract Node put(int shift, int hash, String name, int slot, Object edit, boolean[] added);
+
+		/** Returns this if nothing was removed and null if the node is now empty */
+		abstract Node remove(int shift, int hash, String name, int slot, Object edit);
+	}
+
+	/**
+	 * Node with up to 32 children, one per 5-bit chunk of the hash. The
+	 * array holds a name and its slot, or null and a child node, for each
+	 * bit set in the bitmap.
+	 */
+	private static final class BitmapNode extends Node {
+		int bitmap;
+		Object[] array;
+
+		BitmapNode(Object edit, int bitmap, Object[] array) {
+			super(edit);
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+
+		Integer get(int shift, int hash, String name) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return null;
+			}
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object key = array[i];
+			if (key == null) {
+				return ((Node) array[i + 1]).get(shift + BITS, hash, name);
+			}
+			return name.equals(key) ? (Integer) array[i + 1] : null;
+		}
+
+		Node put(int shift, int hash, String name, int slot, Object edit, boolean[] added) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			if ((bitmap & bit) != 0) {
+				Object key = array[i];
+				Object value = array[i + 1];
+				if (key == null) {
+					Node child = ((Node) value).put(shift + BITS, hash, name, slot, edit, added);
+					return child == value ? this : editable(edit).set(i + 1, child);
+				}
+				if (name.equals(key)) {
+					return ((Integer) value).intValue() == slot ? this : editable(edit).set(i + 1, slot);
+				}
+				added[0] = true;
+				Node child = pair(shift + BITS, (String) key, (Integer) value, hash, name, slot, edit);
+				return editable(edit).set(i, null).set(i + 1, child);
+			}
+			added[0] = true;
+			Object[] grown = new Object[array.length + 2];
+			System.arraycopy(array, 0, grown, 0, i);
+			grown[i] = name;
+			grown[i + 1] = slot;
+			System.arraycopy(array, i, grown, i + 2, array.length - i);
+			BitmapNode node = editable(edit);
+			node.bitmap = bitmap | bit;
+			node.array = grown;
+			return node;
+		}
+
+		Node remove(int shift, int hash, String name, int slot, Object edit) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((bitmap & bit) == 0) {
+				return this;
+			}
+			int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+			Object key = array[i];
+			if (key == null) {
+				Node child = (Node) array[i + 1];
+				Node newChild = child.remove(shift + BITS, hash, name, slot, edit);
+				if (newChild == child) {
+					return this;
+				}
+				if (newChild != null) {
+					return editable(edit).set(i + 1, newChild);
+				}
+			} else if (!name.equals(key) || ((Integer) array[i + 1]).intValue() != slot) {
+				return this;
+			}
+			if (bitmap == bit) {
+				return null;
+			}
+			Object[] shrunk = new Object[array.length - 2];
+			System.arraycopy(array, 0, shrunk, 0, i);
+			System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+			BitmapNode node = editable(edit);
+			node.bitmap = bitmap & ~bit;
+			node.array = shrunk;
+			return node;
+		}
+
+		private BitmapNode editable(Object edit) {
+			if (edit != null && this.edit == edit) {
+				return this;
+			}
+			return new BitmapNode(edit, bitmap, array.clone());
+		}
+
+		private BitmapNode set(int i, Object value) {
+			array[i] = value;
+			return this;
+		}
+
+		/**
+		 * Returns a node holding two names whose hashes agree below shift.
+		 */
+		private static Node pair(int shift, String name1, Integer slot1, int hash2, String name2, int slot2,
+				Object edit) {
+			int hash1 = hash(name1);
+			if (hash1 == hash2) {
+				return new CollisionNode(edit, hash1, new Object[] {name1, slot1, name2, slot2});
+			}
+			boolean[] ignored = new boolean[1];
+			return new BitmapNode(edit, 0, new Object[0])
+					.put(shift, hash1, name1, slot1, edit, ignored)
+					.put(shift, hash2, name2, slot2, edit, ignored);
+		}
+	}
+
+	/**
+	 * Names whose hashes are equal in all 32 bits, kept as a flat list.
+	 */
+	private static final class CollisionNode extends Node {
+		final int hash;
+		final Object[] array;
+
+		CollisionNode(Object edit, int hash, Object[] array) {
+			super(edit);
+			this.hash = hash;
+			this.array = array;
+		}
+
+		Integer get(int shift, int hash, String name) {
+			int i = find(name);
+			return i < 0 ? null : (Integer) array[i + 1];
+		}
+
+		Node put(int shift, int hash, String name, int slot, Object edit, boolean[] added) {
+			if (hash != this.hash) {
+				//Push this node one level down next to the new name
+				BitmapNode node = new BitmapNode(edit, 1 << ((this.hash >>> shift) & MASK), new Object[] {null, this});
+				return node.put(shift, hash, name, slot, edit, added);
+			}
+			int i = find(name);
+			if (i >= 0) {
+				if (((Integer) array[i + 1]).intValue() == slot) {
+					return this;
+				}
+				Object[] copy = array.clone();
+				copy[i + 1] = slot;
+				return new CollisionNode(edit, hash, copy);
+			}
+			added[0] = true;
+			Object[] grown = new Object[array.length + 2];
+			System.arraycopy(array, 0, grown, 0, array.length);
+			grown[array.length] = name;
+			grown[array.length + 1] = slot;
+			return new CollisionNode(edit, hash, grown);
+		}
+
+		Node remove(int shift, int hash, String name, int slot, Object edit) {
+			int i = find(name);
+			if (i < 0 || ((Integer) array[i + 1]).intValue() != slot) {
+				return this;
+			}
+			if (array.length == 2) {
+				return null;
+			}
+			Object[] shrunk = new Object[array.length - 2];
+			System.arraycopy(array, 0, shrunk, 0, i);
+			System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+			return new CollisionNode(edit, hash, shrunk);
+		}
+
+		private int find(String name) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (name.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+}
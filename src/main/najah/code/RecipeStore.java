@@ -0,0 +1,419 @@
+package main.najah.code;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent storage of a RecipeBook: a binary snapshot that is memory
+ * mapped on startup plus a write-ahead journal of the changes made since.
+ * The journal is split into segments; compaction writes a new snapshot
+ * and drops the segments it covers.
+ *
+ * Journal records are buffered by writers and made durable in groups:
+ * the first writer to wait becomes the leader and forces everything
+ * buffered so far with a single write and fsync.
+ */
+final class RecipeStore {
+
+	static final byte APPEND = 1;
+	static final byte SET = 2;
+	/** Drops the slots from the record's slot on; the recipe is ignored */
+	static final byte TRUNCATE = 3;
+
+	private static final String SNAPSHOT = "recipes.snapshot";
+	private static final String SEGMENT_PREFIX = "journal-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final int SNAPSHOT_MAGIC = 0x52424b31;
+	/** name offset, name length, price, coffee, milk, sugar, chocolate */
+	private static final int SLOT_BYTES = 7 * 4;
+	private static final int HEADER_BYTES = 4 + 8 + 4;
+
+	private final Path directory;
+	/** Segment receiving new records, guarded by this */
+	private FileChannel segment;
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	private final CRC32 crc = new CRC32();
+	private long lastSeq;
+	private long durableSeq;
+	private boolean flushing;
+	private IOException failure;
+	private boolean closed;
+	/** Serializes compactions */
+	private final Object compactionLock = new Object();
+	/** Sequence number covered by the snapshot on disk, guarded by compactionLock */
+	private long snapshotSeq;
+
+	RecipeStore(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Recipes recovered from disk, slot by slot.
+	 */
+	static final class Contents {
+		final Recipe[] recipes;
+		final int size;
+
+		Contents(Recipe[] recipes, int size) {
+			this.recipes = recipes;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Maps the snapshot, replays the journal written after it and opens
+	 * a fresh segment for new records. Must be called once before use.
+	 */
+	Contents recover() throws IOException {
+		Files.createDirectories(directory);
+		Recipe[] recipes = new Recipe[4];
+		int size = 0;
+		long snapshotSeq = 0;
+		Path snapshot = directory.resolve(SNAPSHOT);
+		if (Files.exists(snapshot)) {
+			try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+				MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+				if (map.getInt(0) != SNAPSHOT_MAGIC) {
+					throw new IOException("Not a recipe snapshot: " + snapshot);
+				}
+				snapshotSeq = map.getLong(4);
+				size = map.getInt(12);
+				recipes = new Recipe[Math.max(size, 4)];
+				int names = HEADER_BYTES + size * SLOT_BYTES;
+				byte[] nameBytes = new byte[ch.size() > names ? (int) (ch.size() - names) : 0];
+				map.get(names, nameBytes);
+				for (int i = 0, p = HEADER_BYTES; i < size; i++, p += SLOT_BYTES) {
+					String name = new String(nameBytes, map.getInt(p), map.getInt(p + 4), StandardCharsets.UTF_8);
+					recipes[i] = recipe(name, map.getInt(p + 8), map.getInt(p + 12),
+							map.getInt(p + 16), map.getInt(p + 20), map.getInt(p + 24));
+				}
+			}
+		}
+		this.snapshotSeq = snapshotSeq;
+		lastSeq = snapshotSeq;
+		for (Path path : segments()) {
+			byte[] bytes = Files.readAllBytes(path);
+			ByteBuffer in = ByteBuffer.wrap(bytes);
+			int valid = 0;
+			//A torn or corrupt record ends the segment; it was never
+			//acknowledged to a writer
+			while (in.remaining() >= 8) {
+				int length = in.getInt();
+				int checksum = in.getInt();
+				if (length < 8 + 1 + 4 + 4 + 5 * 4 || length > in.remaining()) {
+					break;
+				}
+				crc.reset();
+				crc.update(bytes, in.position(), length);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				int end = in.position() + length;
+				long seq = in.getLong();
+				byte op = in.get();
+				int slot = in.getInt();
+				if (seq > lastSeq) {
+					Recipe r = readRecipe(in);
+					if (op == APPEND) {
+						if (slot != size) {
+							throw new IOException("Journal out of order at record " + seq);
+						}
+						if (size == recipes.length) {
+							recipes = Arrays.copyOf(recipes, size * 2);
+						}
+						recipes[size++] = r;
+					} else if (op == TRUNCATE && slot >= 0 && slot <= size) {
+						Arrays.fill(recipes, slot, size, null);
+						size = slot;
+					} else if (slot >= 0 && slot < size) {
+						recipes[slot] = r;
+					} else {
+						throw new IOException("Journal refers to missing slot " + slot);
+					}
+					lastSeq = seq;
+				}
+				in.position(end);
+				valid = end;
+			}
+			if (valid < bytes.length) {
+				//Cut the damaged tail off, or records appended after it
+				//would be skipped along with it by the next recovery
+				try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+					ch.truncate(valid);
+					ch.force(true);
+				}
+			}
+		}
+		durableSeq = lastSeq;
+		segment = openSegment(lastSeq + 1);
+		return new Contents(recipes, size);
+	}
+
+	/**
+	 * Buffers a change of the given slot and returns its sequence number.
+	 * The change is durable once sync() returned for that number. Throws
+	 * before buffering anything if the journal failed or was closed, so
+	 * the caller can refuse the change before publishing it.
+	 */
+	synchronized long append(byte op, int slot, Recipe r) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Recipe book is closed");
+		}
+		if (failure != null) {
+			throw new IOException("Journal is unusable", failure);
+		}
+		long seq = ++lastSeq;
+		ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+		try {
+			DataOutputStream out = new DataOutputStream(record);
+			out.writeLong(seq);
+			out.writeByte(op);
+			out.writeInt(slot);
+			byte[] name = r.getName().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(name.length);
+			out.write(name);
+			out.writeInt(r.getPrice());
+			out.writeInt(r.getAmtCoffee());
+			out.writeInt(r.getAmtMilk());
+			out.writeInt(r.getAmtSugar());
+			out.writeInt(r.getAmtChocolate());
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		byte[] payload = record.toByteArray();
+		crc.reset();
+		crc.update(payload);
+		writeInt(pending, payload.length);
+		writeInt(pending, (int) crc.getValue());
+		pending.write(payload, 0, payload.length);
+		return seq;
+	}
+
+	/**
+	 * Waits until every record up to seq is on disk.
+	 */
+	void sync(long seq) throws IOException {
+		byte[] batch;
+		long upTo;
+		FileChannel target;
+		synchronized (this) {
+			while (durableSeq < seq && flushing && failure == null) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted waiting for journal");
+				}
+			}
+			if (failure != null) {
+				throw new IOException("Journal is unusable", failure);
+			}
+			if (durableSeq >= seq) {
+				return;
+			}
+			flushing = true;
+			batch = pending.toByteArray();
+			pending = new ByteArrayOutputStream();
+			upTo = lastSeq;
+			target = segment;
+		}
+		IOException error = null;
+		try {
+			write(target, batch);
+		} catch (IOException e) {
+			error = e;
+			throw e;
+		} finally {
+			synchronized (this) {
+				flushing = false;
+				if (error == null) {
+					durableSeq = upTo;
+				} else {
+					failure = error;
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Returns the lock serializing compactions. A compaction holds it
+	 * from roll() until writeSnapshot() returned, so that a slower one
+	 * cannot replace the snapshot of a later one.
+	 */
+	Object compactionLock() {
+		return compactionLock;
+	}
+
+	/**
+	 * Writes a snapshot of the given slots and removes the journal
+	 * segments it covers. The caller must hold the book's lock while
+	 * calling roll() and pass the slots of that same version here. A
+	 * snapshot older than the one on disk is ignored.
+	 */
+	void writeSnapshot(Recipe[] recipes, int size, long seq) throws IOException {
+		synchronized (compactionLock) {
+			if (seq <= snapshotSeq) {
+				return;
+			}
+			byte[][] names = new byte[size][];
+			int nameBytes = 0;
+			for (int i = 0; i < size; i++) {
+				names[i] = recipes[i].getName().getBytes(StandardCharsets.UTF_8);
+				nameBytes += names[i].length;
+			}
+			Path tmp = directory.resolve(SNAPSHOT + ".tmp");
+			long length = HEADER_BYTES + (long) size * SLOT_BYTES + nameBytes;
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, length);
+				map.putInt(SNAPSHOT_MAGIC).putLong(seq).putInt(size);
+				int nameOffset = 0;
+				for (int i = 0; i < size; i++) {
+					Recipe r = recipes[i];
+					map.putInt(nameOffset).putInt(names[i].length).putInt(r.getPrice())
+							.putInt(r.getAmtCoffee()).putInt(r.getAmtMilk())
+							.putInt(r.getAmtSugar()).putInt(r.getAmtChocolate());
+					nameOffset += names[i].length;
+				}
+				for (int i = 0; i < size; i++) {
+					map.put(names[i]);
+				}
+				map.force();
+			}
+			Files.move(tmp, directory.resolve(SNAPSHOT),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			snapshotSeq = seq;
+			for (Path path : segments()) {
+				if (segmentStart(path) <= seq) {
+					Files.deleteIfExists(path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Flushes buffered records, starts a new journal segment and returns
+	 * the sequence number of the last record in the previous segments.
+	 */
+	synchronized long roll() throws IOException {
+		while (flushing) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for journal");
+			}
+		}
+		if (failure != null) {
+			throw new IOException("Journal is unusable", failure);
+		}
+		write(segment, pending.toByteArray());
+		pending = new ByteArrayOutputStream();
+		durableSeq = lastSeq;
+		segment.close();
+		segment = openSegment(lastSeq + 1);
+		return lastSeq;
+	}
+
+	/**
+	 * Flushes buffered records and closes the journal.
+	 */
+	void close() throws IOException {
+		long seq;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			seq = lastSeq;
+		}
+		try {
+			sync(seq);
+		} finally {
+			synchronized (this) {
+				segment.close();
+			}
+		}
+	}
+
+	private FileChannel openSegment(long startSeq) throws IOException {
+		Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startSeq, SEGMENT_SUFFIX));
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	private List<Path> segments() throws IOException {
+		List<Path> result = new ArrayList<Path>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(p -> {
+				String name = p.getFileName().toString();
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}).forEach(result::add);
+		} catch (NoSuchFileException e) {
+			return result;
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static long segmentStart(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	private static void write(FileChannel channel, byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int v) {
+		out.write(v >>> 24);
+		out.write(v >>> 16);
+		out.write(v >>> 8);
+		out.write(v);
+	}
+
+	private static Recipe readRecipe(ByteBuffer in) throws IOException {
+		int nameLength = in.getInt();
+		String name = StandardCharsets.UTF_8.decode(in.slice().limit(nameLength)).toString();
+		in.position(in.position() + nameLength);
+		return recipe(name, in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt());
+	}
+
+	private static Recipe recipe(String name, int price, int coffee, int milk, int sugar, int chocolate)
+			throws IOException {
+		Recipe r = new Recipe();
+		r.setName(name);
+		try {
+			r.setPrice(price);
+			r.setAmtCoffee(coffee);
+			r.setAmtMilk(milk);
+			r.setAmtSugar(sugar);
+			r.setAmtChocolate(chocolate);
+		} catch (RecipeException e) {
+			throw new IOException("Corrupt recipe record: " + e.getMessage());
+		}
+		return r;
+	}
+}
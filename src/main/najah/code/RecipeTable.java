@@ -0,0 +1,326 @@
+package main.najah.code;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of a recipe catalog. Prices and ingredient amounts
+ * are kept in parallel int arrays indexed by row, names in a dictionary,
+ * so aggregates and filters scan primitive arrays without touching a
+ * Recipe object. Recipe objects are only created by get().
+ *
+ * A RecipeTable is not thread-safe.
+ */
+public class RecipeTable {
+
+	/** The numeric columns of a recipe */
+	public enum Column {
+		PRICE, COFFEE, MILK, SUGAR, CHOCOLATE
+	}
+
+	private String[] names;
+	private int[] price;
+	private int[] coffee;
+	private int[] milk;
+	private int[] sugar;
+	private int[] chocolate;
+	private int size;
+	/** Row of every recipe, keyed by recipe name */
+	private final Map<String, Integer> rows;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public RecipeTable() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty table sized for the expected number of recipes.
+	 * @param initialCapacity
+	 */
+	public RecipeTable(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Capacity must be non-negative");
+		}
+		int capacity = Math.max(initialCapacity, 1);
+		names = new String[capacity];
+		price = new int[capacity];
+		coffee = new int[capacity];
+		milk = new int[capacity];
+		sugar = new int[capacity];
+		chocolate = new int[capacity];
+		rows = new HashMap<String, Integer>(Math.max(initialCapacity, 16) * 4 / 3);
+	}
+
+	/**
+	 * Creates a table holding every named recipe of the book.
+	 * @param book
+	 * @return RecipeTable
+	 */
+	public static RecipeTable of(RecipeBook book) {
+		RecipeTable table = new RecipeTable(book.size());
+		for (Recipe r : book.getRecipeList()) {
+			if (!r.getName().isEmpty()) {
+				table.add(r);
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a copy of the recipe and returns its row, or -1 if a recipe
+	 * with the same name is already in the table.
+	 * @param r
+	 * @return int
+	 */
+	public int add(Recipe r) {
+		return add(r.getName(), r.getPrice(), r.getAmtCoffee(), r.getAmtMilk(), r.getAmtSugar(), r.getAmtChocolate());
+	}
+
+	/**
+	 * Adds a recipe and returns its row, or -1 if a recipe with the same
+	 * name is already in the table.
+	 * @return int
+	 */
+	public int add(String name, int price, int coffee, int milk, int sugar, int chocolate) {
+		if (name == null) {
+			throw new IllegalArgumentException("Name must not be null");
+		}
+		checkAmounts(price, coffee, milk, sugar, chocolate);
+		if (rows.containsKey(name)) {
+			return -1;
+		}
+		if (size == names.length) {
+			grow();
+		}
+		int row = size++;
+		rows.put(name, row);
+		names[row] = name;
+		store(row, price, coffee, milk, sugar, chocolate);
+		return row;
+	}
+
+	/**
+	 * Overwrites the amounts of the given row.
+	 */
+	public void set(int row, int price, int coffee, int milk, int sugar, int chocolate) {
+		checkRow(row);
+		checkAmounts(price, coffee, milk, sugar, chocolate);
+		store(row, price, coffee, milk, sugar, chocolate);
+	}
+
+	/**
+	 * Returns the row of the recipe with the given name
+	 * and -1 if the recipe does not exist.
+	 * @param name
+	 * @return int
+	 */
+	public int rowOf(String name) {
+		Integer row = rows.get(name);
+		return row == null ? -1 : row;
+	}
+
+	/**
+	 * Returns the name of the given row.
+	 * @param row
+	 * @return String
+	 */
+	public String getName(int row) {
+		checkRow(row);
+		return names[row];
+	}
+
+	/**
+	 * Returns one value of a column.
+	 * @param column
+	 * @param row
+	 * @return int
+	 */
+	public int get(Column column, int row) {
+		checkRow(row);
+		return column(column)[row];
+	}
+
+	/**
+	 * Creates a Recipe holding the values of the given row. Changes
+	 * to the returned recipe are not written back to the table.
+	 * @param row
+	 * @return Recipe
+	 */
+	public Recipe get(int row) {
+		checkRow(row);
+		Recipe r = new Recipe();
+		r.setName(names[row]);
+		try {
+			r.setPrice(price[row]);
+			r.setAmtCoffee(coffee[row]);
+			r.setAmtMilk(milk[row]);
+			r.setAmtSugar(sugar[row]);
+			r.setAmtChocolate(chocolate[row]);
+		} catch (RecipeException e) {
+			//Columns only ever hold values the setters accept
+			throw new IllegalStateException(e);
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the sum of a column over all rows.
+	 * @param column
+	 * @return long
+	 */
+	public long sum(Column column) {
+		int[] values = column(column);
+		long sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += values[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the smallest value of a column, or 0 for an empty table.
+	 * @param column
+	 * @return int
+	 */
+	public int min(Column column) {
+		int[] values = column(column);
+		if (size == 0) {
+			return 0;
+		}
+		int min = values[0];
+		for (int i = 1; i < size; i++) {
+			min = Math.min(min, values[i]);
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the largest value of a column, or 0 for an empty table.
+	 * @param column
+	 * @return int
+	 */
+	public int max(Column column) {
+		int[] values = column(column);
+		int max = 0;
+		for (int i = 0; i < size; i++) {
+			max = Math.max(max, values[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * Writes the sum of every column into totals, in Column order,
+	 * reading all columns in a single pass.
+	 * @param totals array of at least Column.values().length elements
+	 */
+	public void sumAll(long[] totals) {
+		long p = 0, c = 0, m = 0, s = 0, ch = 0;
+		for (int i = 0; i < size; i++) {
+			p += price[i];
+			c += coffee[i];
+			m += milk[i];
+			s += sugar[i];
+			ch += chocolate[i];
+		}
+		totals[Column.PRICE.ordinal()] = p;
+		totals[Column.COFFEE.ordinal()] = c;
+		totals[Column.MILK.ordinal()] = m;
+		totals[Column.SUGAR.ordinal()] = s;
+		totals[Column.CHOCOLATE.ordinal()] = ch;
+	}
+
+	/**
+	 * Writes the rows whose column value lies in [min, max] into out and
+	 * returns how many rows matched. Stops when out is full.
+	 * @param column
+	 * @param min
+	 * @param max
+	 * @param out
+	 * @return int
+	 */
+	public int filter(Column column, int min, int max, int[] out) {
+		int[] values = column(column);
+		int n = 0;
+		for (int i = 0; i < size && n < out.length; i++) {
+			int v = values[i];
+			if (v >= min && v <= max) {
+				out[n++] = i;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Writes the rows that can be made from the given ingredient stock
+	 * into out and returns how many rows matched. Stops when out is full.
+	 * @return int
+	 */
+	public int filterMakeable(int coffeeStock, int milkStock, int sugarStock, int chocolateStock, int[] out) {
+		int n = 0;
+		for (int i = 0; i < size && n < out.length; i++) {
+			if (coffee[i] <= coffeeStock && milk[i] <= milkStock
+					&& sugar[i] <= sugarStock && chocolate[i] <= chocolateStock) {
+				out[n++] = i;
+			}
+		}
+		return n;
+	}
+
+	private int[] column(Column column) {
+		switch (column) {
+		case PRICE:
+			return price;
+		case COFFEE:
+			return coffee;
+		case MILK:
+			return milk;
+		case SUGAR:
+			return sugar;
+		case CHOCOLATE:
+			return chocolate;
+		default:
+			throw new IllegalArgumentException("Unknown column " + column);
+		}
+	}
+
+	private void store(int row, int price, int coffee, int milk, int sugar, int chocolate) {
+		this.price[row] = price;
+		this.coffee[row] = coffee;
+		this.milk[row] = milk;
+		this.sugar[row] = sugar;
+		this.chocolate[row] = chocolate;
+	}
+
+	private void grow() {
+		int capacity = names.length * 2;
+		names = Arrays.copyOf(names, capacity);
+		price = Arrays.copyOf(price, capacity);
+		coffee = Arrays.copyOf(coffee, capacity);
+		milk = Arrays.copyOf(milk, capacity);
+		sugar = Arrays.copyOf(sugar, capacity);
+		chocolate = Arrays.copyOf(chocolate, capacity);
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+		}
+	}
+
+	private static void checkAmounts(int price, int coffee, int milk, int sugar, int chocolate) {
+		if ((price | coffee | milk | sugar | chocolate) < 0) {
+			throw new IllegalArgumentException("Price and amounts must be non-negative");
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package main.najah.code;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable counterpart of Recipe, safe to share between threads and to
+ * use as a map key. Unlike Recipe, two values are equal only if their
+ * name, price and all amounts are equal. The hash code is computed once.
+ *
+ * intern() returns a canonical instance shared by every equal value, so
+ * equal recipes from different books take memory once and two interned
+ * values are equal exactly when they are the same object. The canonical
+ * instance is a copy made by intern(); the pool only holds it weakly.
+ */
+public final class RecipeValue {
+
+	private static final ConcurrentHashMap<Ref, Ref> POOL = new ConcurrentHashMap<Ref, Ref>();
+	private static final ReferenceQueue<RecipeValue> CLEARED = new ReferenceQueue<RecipeValue>();
+
+	private final String name;
+	private final int price;
+	private final int amtCoffee;
+	private final int amtMilk;
+	private final int amtSugar;
+	private final int amtChocolate;
+	private final int hash;
+	/** True only for the canonical instances made by intern() */
+	private final boolean interned;
+
+	private RecipeValue(Builder b) {
+		this.name = b.name;
+		this.price = b.price;
+		this.amtCoffee = b.amtCoffee;
+		this.amtMilk = b.amtMilk;
+		this.amtSugar = b.amtSugar;
+		this.amtChocolate = b.amtChocolate;
+		int h = name.hashCode();
+		h = 31 * h + price;
+		h = 31 * h + amtCoffee;
+		h = 31 * h + amtMilk;
+		h = 31 * h + amtSugar;
+		h = 31 * h + amtChocolate;
+		this.hash = h;
+		this.interned = false;
+	}
+
+	/**
+	 * Copies a value into a candidate canonical instance.
+	 */
+	private RecipeValue(RecipeValue v) {
+		this.name = v.name;
+		this.price = v.price;
+		this.amtCoffee = v.amtCoffee;
+		this.amtMilk = v.amtMilk;
+		this.amtSugar = v.amtSugar;
+		this.amtChocolate = v.amtChocolate;
+		this.hash = v.hash;
+		this.interned = true;
+	}
+
+	/**
+	 * Returns a builder for a new value.
+	 * @return Builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns an immutable copy of the recipe.
+	 * @param r
+	 * @return RecipeValue
+	 */
+	public static RecipeValue of(Recipe r) {
+		Builder b = new Builder();
+		b.name = r.getName();
+		b.price = r.getPrice();
+		b.amtCoffee = r.getAmtCoffee();
+		b.amtMilk = r.getAmtMilk();
+		b.amtSugar = r.getAmtSugar();
+		b.amtChocolate = r.getAmtChocolate();
+		return new RecipeValue(b);
+	}
+
+	/**
+	 * Returns a mutable Recipe with the same name, price and amounts.
+	 * @return Recipe
+	 */
+	public Recipe toRecipe() {
+		Recipe r = new Recipe();
+		r.setName(name);
+		try {
+			r.setPrice(price);
+			r.setAmtCoffee(amtCoffee);
+			r.setAmtMilk(amtMilk);
+			r.setAmtSugar(amtSugar);
+			r.setAmtChocolate(amtChocolate);
+		} catch (RecipeException e) {
+			//Values were checked when this value was built
+			throw new IllegalStateException(e);
+		}
+		return r;
+	}
+
+	/**
+	 * Returns the canonical instance equal to this value.
+	 * @return RecipeValue
+	 */
+	public RecipeValue intern() {
+		if (interned) {
+			return this;
+		}
+		expungeCleared();
+		RecipeValue candidate = new RecipeValue(this);
+		Ref ref = new Ref(candidate, CLEARED);
+		while (true) {
+			Ref existing = POOL.putIfAbsent(ref, ref);
+			if (existing == null) {
+				return candidate;
+			}
+			RecipeValue canonical = existing.get();
+			if (canonical != null) {
+				return canonical;
+			}
+			//Collected between the lookup and get(); drop it and retry
+			POOL.remove(existing, existing);
+		}
+	}
+
+	private static void expungeCleared() {
+		Reference<? extends RecipeValue> cleared;
+		while ((cleared = CLEARED.poll()) != null) {
+			POOL.remove(cleared, cleared);
+		}
+	}
+
+	/**
+	 * @return   Returns the name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return   Returns the price.
+	 */
+	public int getPrice() {
+		return price;
+	}
+
+	/**
+	 * @return   Returns the amtCoffee.
+	 */
+	public int getAmtCoffee() {
+		return amtCoffee;
+	}
+
+	/**
+	 * @return   Returns the amtMilk.
+	 */
+	public int getAmtMilk() {
+		return amtMilk;
+	}
+
+	/**
+	 * @return   Returns the amtSugar.
+	 */
+	public int getAmtSugar() {
+		return amtSugar;
+	}
+
+	/**
+	 * @return   Returns the amtChocolate.
+	 */
+	public int getAmtChocolate() {
+		return amtChocolate;
+	}
+
+	/**
+	 * Returns the name of the recipe.
+	 * @return String
+	 */
+	public String toString() {
+		return name;
+	}
+
+	public int hashCode() {
+		return hash;
+	}
+
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof RecipeValue))
+			return false;
+		final RecipeValue other = (RecipeValue) obj;
+		//Distinct canonical instances never hold equal values
+		if (hash != other.hash || (interned && other.interned))
+			return false;
+		return sameValues(other);
+	}
+
+	private boolean sameValues(RecipeValue other) {
+		return price == other.price && amtCoffee == other.amtCoffee && amtMilk == other.amtMilk
+				&& amtSugar == other.amtSugar && amtChocolate == other.amtChocolate
+				&& name.equals(other.name);
+	}
+
+	/**
+	 * Pool entry: a weak reference that compares by the value it refers to.
+	 */
+	private static final class Ref extends WeakReference<RecipeValue> {
+		private final int hash;
+
+		Ref(RecipeValue value, ReferenceQueue<RecipeValue> queue) {
+			super(value, queue);
+			this.hash = value.hash;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Ref))
+				return false;
+			RecipeValue value = get();
+			RecipeValue other = ((Ref) obj).get();
+			return value != null && other != null && value.hash == other.hash && value.sameValues(other);
+		}
+	}
+
+	/**
+	 * Collects the fields of a RecipeValue. build() applies the same
+	 * checks as the Recipe setters.
+	 */
+	public static final class Builder {
+		private String name = "";
+		private int price;
+		private int amtCoffee;
+		private int amtMilk;
+		private int amtSugar;
+		private int amtChocolate;
+
+		private Builder() {
+		}
+
+		public Builder name(String name) {
+			if (name != null) {
+				this.name = name;
+			}
+			return this;
+		}
+
+		public Builder price(int price) {
+			this.price = price;
+			return this;
+		}
+
+		public Builder amtCoffee(int amtCoffee) {
+			this.amtCoffee = amtCoffee;
+			return this;
+		}
+
+		public Builder amtMilk(int amtMilk) {
+			this.amtMilk = amtMilk;
+			return this;
+		}
+
+		public Builder amtSugar(int amtSugar) {
+			this.amtSugar = amtSugar;
+			return this;
+		}
+
+		public Builder amtChocolate(int amtChocolate) {
+			this.amtChocolate = amtChocolate;
+			return this;
+		}
+
+		/**
+		 * Returns the value, or throws if a price or amount is negative.
+		 * @return RecipeValue
+		 * @throws RecipeException
+		 */
+		public RecipeValue build() throws RecipeException {
+			if (price < 0) {
+				throw new RecipeException("Price must be a positive integer");
+			}
+			if (amtCoffee < 0) {
+				throw new RecipeException("Units of coffee must be a positive integer");
+			}
+			if (amtMilk < 0) {
+				throw new RecipeException("Units of milk must be a positive integer");
+			}
+			if (amtSugar < 0) {
+				throw new RecipeException("Units of sugar must be a positive integer");
+			}
+			if (amtChocolate < 0) {
+				throw new RecipeException("Units of chocolate must be a positive integer");
+			}
+			return new RecipeValue(this);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package main.najah.code;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Persistent vector of recipe slots: a 32-way trie where every update
+ * copies only the path from the root to the changed slot and shares all
+ * other nodes with the vector it was made from. get, set and append are
+ * O(log32 n).
+ *
+ * Updates may pass an edit token. Nodes created under a token are owned
+ * by it and are updated in place by later calls with the same token, so
+ * a batch of updates copies each node at most once. A token must not be
+ * used again once a vector built with it has been published.
+ */
+final class RecipeVector {
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	static final RecipeVector EMPTY = new RecipeVector(0, 0, new Node(null, new Object[WIDTH]));
+
+	private final int size;
+	/** Bits of the index consumed above the leaves */
+	private final int shift;
+	private final Node root;
+
+	private RecipeVector(int size, int shift, Node root) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+	}
+
+	private static final class Node {
+		final Object edit;
+		final Object[] array;
+
+		Node(Object edit, Object[] array) {
+			this.edit = edit;
+			this.array = array;
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	Recipe get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Slot " + i + " out of range [0, " + size + ")");
+		}
+		Node node = root;
+		for (int level = shift; level > 0; level -= BITS) {
+			node = (Node) node.array[(i >>> level) & MASK];
+		}
+		return (Recipe) node.array[i & MASK];
+	}
+
+	RecipeVector set(int i, Recipe r, Object edit) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Slot " + i + " out of range [0, " + size + ")");
+		}
+		return new RecipeVector(size, shift, set(root, shift, i, r, edit));
+	}
+
+	private static Node set(Node node, int level, int i, Object value, Object edit) {
+		Node copy = editable(node, edit);
+		if (level == 0) {
+			copy.array[i & MASK] = value;
+		} else {
+			int child = (i >>> level) & MASK;
+			copy.array[child] = set((Node) node.array[child], level - BITS, i, value, edit);
+		}
+		return copy;
+	}
+
+	RecipeVector append(Recipe r, Object edit) {
+		if (size == 1 << (shift + BITS)) {
+			//Root is full: grow the trie by one level
+			Object[] array = new Object[WIDTH];
+			array[0] = root;
+			array[1] = path(shift, size, r, edit);
+			return new RecipeVector(size + 1, shift + BITS, new Node(edit, array));
+		}
+		return new RecipeVector(size + 1, shift, append(root, shift, size, r, edit));
+	}
+
+	private static Node append(Node node, int level, int i, Recipe r, Object edit) {
+		Node copy = editable(node, edit);
+		if (level == 0) {
+			copy.array[i & MASK] = r;
+		} else {
+			int child = (i >>> level) & MASK;
+			Node next = (Node) node.array[child];
+			copy.array[child] = next == null ? path(level - BITS, i, r, edit) : append(next, level - BITS, i, r, edit);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns a new branch from the given level down to a leaf holding r.
+	 */
+	private static Node path(int level, int i, Recipe r, Object edit) {
+		Object[] array = new Object[WIDTH];
+		if (level == 0) {
+			array[i & MASK] = r;
+		} else {
+			array[(i >>> level) & MASK] = path(level - BITS, i, r, edit);
+		}
+		return new Node(edit, array);
+	}
+
+	Recipe[] toArray() {
+		Recipe[] out = new Recipe[size];
+		int i = 0;
+		while (i < size) {
+			Node node = root;
+			for (int level = shift; level > 0; level -= BITS) {
+				node = (Node) node.array[(i >>> level) & MASK];
+			}
+			int n = Math.min(WIDTH, size - i);
+			System.arraycopy(node.array, 0, out, i, n);
+			i += n;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns a read-only list view of the slots.
+	 */
+	List<Recipe> asList() {
+		return new View();
+	}
+
+	private final class View extends AbstractList<Recipe> implements RandomAccess {
+		public Recipe get(int index) {
+			return RecipeVector.this.get(index);
+		}
+
+		public int size() {
+			return size;
+		}
+	}
+
+	private static Node editable(Node node, Object edit) {
+		if (edit != null && node.edit == edit) {
+			return node;
+		}
+		return new Node(edit, node.array.clone());
+	}
+}
@@ -0,0 +1,170 @@
+package main.najah.code;
+
+import java.util.Objects;
+
+/**
+ * Count, sum, min, max, mean and variance of a stream of values, updated
+ * in O(1) per value with Welford's method so that the variance stays
+ * accurate without keeping the values. Statistics gathered on different
+ * threads can be merged; an instance itself is not thread-safe.
+ *
+ * Works as a stream collector:
+ * stream.collect(RunningStatistics::new, RunningStatistics::add, RunningStatistics::merge)
+ */
+public class RunningStatistics {
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    /** Sum of squared differences from the mean */
+    private double m2;
+
+    public RunningStatistics() {
+    }
+
+    private RunningStatistics(RunningStatistics other) {
+        count = other.count;
+        sum = other.sum;
+        min = other.min;
+        max = other.max;
+        mean = other.mean;
+        m2 = other.m2;
+    }
+
+    /**
+     * Adds a value. Throws ArithmeticException if the sum no longer fits
+     * in a long; the statistics are left as they were.
+     * @param value
+     */
+    public void add(long value) {
+        long newSum = Math.addExact(sum, value);
+        sum = newSum;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Adds the values a[from..to).
+     * @param a
+     * @param from
+     * @param to
+     */
+    public void add(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to; i++) {
+            add(a[i]);
+        }
+    }
+
+    /**
+     * Adds the statistics of other to these, as if every value added to
+     * other had been added here.
+     * @param other
+     */
+    public void merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        long newSum = Math.addExact(sum, other.sum);
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        //Chan et al.: combine the two means and squared differences directly
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+        sum = newSum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns an independent copy, e.g. to publish to a dashboard.
+     * @return RunningStatistics
+     */
+    public RunningStatistics copy() {
+        return new RunningStatistics(this);
+    }
+
+    /**
+     * Forgets every value.
+     */
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        mean = 0;
+        m2 = 0;
+    }
+
+    /**
+     * @return   Returns the number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return   Returns the sum of the values.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return   Returns the smallest value, or Long.MAX_VALUE if there is none.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * @return   Returns the largest value, or Long.MIN_VALUE if there is none.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return   Returns the mean, or 0 if there are no values.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return   Returns the population variance, or 0 if there are no values.
+     */
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    /**
+     * @return   Returns the sample variance, or 0 if there are fewer than two values.
+     */
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * @return   Returns the population standard deviation.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the statistics in one line.
+     * @return String
+     */
+    public String toString() {
+        return "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + ", mean=" + mean
+                + ", variance=" + getVariance();
+    }
+}
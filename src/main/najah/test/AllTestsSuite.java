@@ -2,15 +2,34 @@ package main.najah.test;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.platform.suite.api.ExcludeTags;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
 @Suite
+@ExcludeTags("benchmark")
 @SelectClasses({
     CalculatorTest.class,
+    FactorialServiceTest.class,
+    CombinatoricsTest.class,
+    ExpressionEngineTest.class,
+    RunningStatisticsTest.class,
     ProductTest.class,
+    ProductCatalogTest.class,
+    OffHeapProductStoreTest.class,
+    BulkDiscountTest.class,
+    MoneyTest.class,
+    NameIndexTest.class,
+    PricingEngineTest.class,
     UserServiceTest.class,
-    RecipeBookTest.class
+    RecipeBookTest.class,
+    RecipeTest.class,
+    RecipeValueTest.class,
+    RecipeTableTest.class,
+    RecipeCostsTest.class,
+    RecipeCsvTest.class,
+    BrewEngineTest.class,
+    OrderPipelineTest.class
 })
 public class AllTestsSuite {
 
@@ -0,0 +1,129 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.BrewEngine;
+import main.najah.code.Inventory;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeException;
+
+import java.util.concurrent.TimeUnit;
+
+class BrewEngineTest {
+
+    Inventory inventory;
+    BrewEngine engine;
+    Recipe latte;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        inventory = new Inventory(10, 10, 10, 10);
+        engine = new BrewEngine(inventory);
+        latte = new Recipe();
+        latte.setName("Latte");
+        latte.setPrice("50");
+        latte.setAmtCoffee("2");
+        latte.setAmtMilk("3");
+        latte.setAmtSugar("1");
+        latte.setAmtChocolate("0");
+    }
+
+    @Test
+    @DisplayName("Test brewing deducts ingredients")
+    void testBrewDeductsIngredients() {
+        assertTrue(engine.brew(latte), "Latte should be brewed");
+        assertAll("Stock after brewing",
+            () -> assertEquals(8, inventory.getCoffee(), "Coffee should be deducted"),
+            () -> assertEquals(7, inventory.getMilk(), "Milk should be deducted"),
+            () -> assertEquals(9, inventory.getSugar(), "Sugar should be deducted"),
+            () -> assertEquals(10, inventory.getChocolate(), "Chocolate should be untouched")
+        );
+    }
+
+    @Test
+    @DisplayName("Test short stock rejects brew without deducting")
+    void testShortStockRejectsBrew() {
+        inventory = new Inventory(10, 2, 10, 10);
+        engine = new BrewEngine(inventory);
+        assertFalse(engine.brew(latte), "Latte should be rejected for missing milk");
+        assertAll("Stock after rejection",
+            () -> assertEquals(10, inventory.getCoffee(), "Coffee should be given back"),
+            () -> assertEquals(2, inventory.getMilk(), "Milk should be untouched"),
+            () -> assertEquals(1, engine.getRejected(), "Rejection should be counted")
+        );
+    }
+
+    @Test
+    @DisplayName("Test making coffee returns change")
+    void testMakeCoffee() {
+        assertEquals(25, engine.makeCoffee(latte, 75), "Change should be 25");
+        assertEquals(40, engine.makeCoffee(latte, 40), "Underpayment should be returned");
+        assertEquals(1, engine.getBrewed(), "Only one brew should be counted");
+    }
+
+    @Test
+    @DisplayName("Test negative stock is rejected")
+    void testNegativeStock() {
+        assertThrows(IllegalArgumentException.class, () -> inventory.addIngredients(-1, 0, 0, 0),
+            "Negative units should be rejected");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Test concurrent brews never oversell stock")
+    void testConcurrentBrews() throws InterruptedException {
+        inventory = new Inventory(2000, 3000, 1000, 0);
+        engine = new BrewEngine(inventory);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    engine.brew(latte);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertAll("Stock after concurrent brews",
+            () -> assertEquals(1000, engine.getBrewed(), "Exactly 1000 lattes fit in the stock"),
+            () -> assertEquals(3000, engine.getRejected(), "Every other brew should be rejected"),
+            () -> assertEquals(0, inventory.getCoffee(), "Coffee should be used up"),
+            () -> assertEquals(0, inventory.getMilk(), "Milk should be used up")
+        );
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Test concurrent brews are never rejected while stock covers them")
+    void testNoFalseOutOfStock() throws InterruptedException, RecipeException {
+        Recipe steamedMilk = new Recipe();
+        steamedMilk.setName("Steamed Milk");
+        steamedMilk.setAmtMilk("1");
+        //Exactly enough for 4 threads of lattes and 4 of steamed milk, 500 each
+        inventory = new Inventory(4000, 8000, 2000, 0);
+        engine = new BrewEngine(inventory);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            Recipe r = t % 2 == 0 ? latte : steamedMilk;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    engine.brew(r);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertAll("Stock after concurrent brews",
+            () -> assertEquals(0, engine.getRejected(), "No brew should be rejected while stock covers it"),
+            () -> assertEquals(4000, engine.getBrewed(), "Every brew should succeed"),
+            () -> assertEquals(0, inventory.getCoffee(), "Coffee should be used up"),
+            () -> assertEquals(0, inventory.getMilk(), "Milk should be used up"),
+            () -> assertEquals(0, inventory.getSugar(), "Sugar should be used up")
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.BulkDiscount;
+import main.najah.code.Product;
+import main.najah.code.ProductCatalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class BulkDiscountTest {
+
+    List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = new ArrayList<Product>();
+        String[] categories = {"Food", "Tech", "Toys"};
+        for (int i = 0; i < 300000; i++) {
+            products.add(new Product("P" + i, i % 100, categories[i % 3]));
+        }
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test applying one discount to every product")
+    void testApplyToAll() {
+        assertEquals(300000, BulkDiscount.apply(products, 20), "Every product should be updated");
+        assertEquals(0, BulkDiscount.apply(products, 20), "Unchanged discounts should not be counted");
+        assertEquals(40, products.get(50).getFinalPrice(), 1e-9, "Final price should use the new discount");
+    }
+
+    @Test
+    @DisplayName("Test applying discounts per category")
+    void testApplyPerCategory() {
+        Map<String, Double> campaign = new HashMap<String, Double>();
+        campaign.put("Food", 10.0);
+        campaign.put("Toys", 50.0);
+        assertEquals(200000, BulkDiscount.apply(products, campaign), "Food and toys should be updated");
+        assertAll("Per-category discounts",
+            () -> assertEquals(10, products.get(0).getDiscount(), "Food should get 10%"),
+            () -> assertEquals(0, products.get(1).getDiscount(), "Tech should be left alone"),
+            () -> assertEquals(50, products.get(2).getDiscount(), "Toys should get 50%")
+        );
+    }
+
+    @Test
+    @DisplayName("Test invalid campaign changes nothing")
+    void testInvalidCampaign() {
+        Map<String, Double> campaign = new HashMap<String, Double>();
+        campaign.put("Food", 10.0);
+        campaign.put("Tech", 60.0);
+        assertThrows(IllegalArgumentException.class, () -> BulkDiscount.apply(products, campaign), "Discount over 50% should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> BulkDiscount.apply(products, -1), "Negative discount should be rejected");
+        assertEquals(0, products.get(0).getDiscount(), "No product should be updated");
+    }
+
+    @Test
+    @DisplayName("Test applying a discount to a catalog")
+    void testApplyToCatalog() {
+        ProductCatalog catalog = ProductCatalog.of(products);
+        catalog.applyDiscount(5, 30);
+        assertEquals(299999, BulkDiscount.apply(catalog, 30), "Rows already at 30% should not be counted");
+        assertEquals(35, catalog.getFinalPrice(50), 1e-9, "Catalog price should use the new discount");
+    }
+}
@@ -0,0 +1,93 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import main.najah.code.Calculator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing runs for the Calculator array methods. They use hundreds of MB
+ * and take seconds, so they are tagged "benchmark" and kept out of
+ * AllTestsSuite; run this class on its own on an otherwise idle machine.
+ */
+@Tag("benchmark")
+@Execution(ExecutionMode.SAME_THREAD)
+@DisplayName("Calculator Benchmarks")
+public class CalculatorBenchmark {
+
+    private final Calculator calc = new Calculator();
+
+    @Test
+    @DisplayName("Benchmark Add Method over a Large Array")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void benchmarkAddRange() {
+        int[] numbers = new int[20000000];
+        Random random = new Random(42);
+        long expected = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt();
+            expected += numbers[i];
+        }
+        long varargsNanos = Long.MAX_VALUE;
+        long rangeNanos = Long.MAX_VALUE;
+        long sum = 0;
+        //Best of several runs, so both loops are measured after JIT compilation
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            calc.add(numbers);
+            varargsNanos = Math.min(varargsNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            sum = calc.add(numbers, 0, numbers.length);
+            rangeNanos = Math.min(rangeNanos, System.nanoTime() - start);
+        }
+        System.out.println("add(int...): " + varargsNanos / 1000 + " us, add(int[], from, to): " + rangeNanos / 1000
+            + " us, speedup " + (double) varargsNanos / Math.max(rangeNanos, 1));
+        assertEquals(expected, sum, "Range sum should match the long sum");
+    }
+
+    @Test
+    @DisplayName("Benchmark Parallel Add Method Scaling")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void benchmarkParallelAddScaling() throws Exception {
+        int[] numbers = new int[50000000];
+        java.util.Arrays.setAll(numbers, i -> i * 31 + 7);
+        long expected = calc.add(numbers, 0, numbers.length);
+        int cores = Runtime.getRuntime().availableProcessors();
+        double oneWorkerNanos = 0;
+        double twoWorkerSpeedup = 0;
+        //Run parallelAdd inside pools of 1, 2, 4 ... workers; its tasks fork into the pool they run in
+        for (int workers = 1; workers <= cores; workers = workers < cores ? Math.min(workers * 2, cores) : workers + 1) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            long best = Long.MAX_VALUE;
+            try {
+                for (int run = 0; run < 5; run++) {
+                    long start = System.nanoTime();
+                    long sum = pool.submit(() -> calc.parallelAdd(numbers, 0, numbers.length)).get();
+                    best = Math.min(best, System.nanoTime() - start);
+                    assertEquals(expected, sum, "Parallel sum should not depend on the number of workers");
+                }
+            } finally {
+                pool.shutdown();
+            }
+            if (workers == 1) {
+                oneWorkerNanos = best;
+            }
+            double speedup = oneWorkerNanos / best;
+            if (workers == 2) {
+                twoWorkerSpeedup = speedup;
+            }
+            System.out.println(workers + " workers: " + best / 1000 + " us, speedup " + speedup
+                + ", efficiency " + speedup / workers);
+        }
+        //Reported rather than asserted: the speedup depends on the machine and its load
+        if (cores >= 2) {
+            System.out.println("Two-worker speedup: " + twoWorkerSpeedup);
+        }
+    }
+}
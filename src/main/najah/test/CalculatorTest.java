@@ -6,9 +6,13 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import main.najah.code.Calculator;
+import main.najah.code.OverflowMode;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import java.util.BitSet;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 @DisplayName("Calculator Tests")
 @Execution(ExecutionMode.CONCURRENT)  // Parallel execution enabled
@@ -224,4 +228,154 @@ public class CalculatorTest {
         int result = calc.add(Integer.MAX_VALUE, -1, 0);
         assertEquals(Integer.MAX_VALUE - 1, result, "The result should correctly handle Integer.MAX_VALUE");
     }
+
+    @Test
+    @Order(23)
+    @DisplayName("Test Add Method over an int Array Range")
+    void testAddIntRange() {
+        int[] numbers = {Integer.MAX_VALUE, Integer.MAX_VALUE, 1, 2, 3, 4, 5};
+        assertAll("Add over an int array range",
+            () -> assertEquals(2L * Integer.MAX_VALUE + 15, calc.add(numbers, 0, numbers.length), "Sum should not overflow"),
+            () -> assertEquals(9, calc.add(numbers, 3, 6), "Only the range should be summed"),
+            () -> assertEquals(0, calc.add(numbers, 2, 2), "Empty range should sum to 0"),
+            () -> assertThrows(IndexOutOfBoundsException.class, () -> calc.add(numbers, 5, 8), "Range past the end should be rejected")
+        );
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("Test Add Method over a long Array Range with Overflow")
+    void testAddLongRange() {
+        long[] wrapsBack = {Long.MAX_VALUE, Long.MAX_VALUE, 1, 2, -Long.MAX_VALUE, -Long.MAX_VALUE};
+        long[] overflows = {Long.MAX_VALUE, 1, 2, 3, 4};
+        long[] underflows = {Long.MIN_VALUE, -1};
+        assertAll("Add over a long array range",
+            () -> assertEquals(3, calc.add(wrapsBack, 0, wrapsBack.length), "Sum that fits should be exact"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.add(overflows, 0, overflows.length), "Overflow should be detected"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.add(underflows, 0, underflows.length), "Underflow should be detected"),
+            () -> assertEquals(Long.MAX_VALUE, calc.add(overflows, 0, 1), "Range should stop before the overflow")
+        );
+    }
+
+    @Test
+    @Order(25)
+    @DisplayName("Test Add Method over a Random Array Range Matches the long Sum")
+    void testAddRangeRandom() {
+        int[] numbers = new int[100000];
+        java.util.Random random = new java.util.Random(42);
+        long sum = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt();
+            sum += numbers[i];
+        }
+        long expected = sum;
+        long tail = sum - numbers[0] - numbers[1] - numbers[2];
+        assertAll("Random range",
+            () -> assertEquals(expected, calc.add(numbers, 0, numbers.length), "Range sum should match the long sum"),
+            () -> assertEquals(tail, calc.add(numbers, 3, numbers.length), "Unaligned range should match the long sum")
+        );
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("Test Parallel Add Method Matches Sequential Add")
+    void testParallelAdd() {
+        calc.setParallelThreshold(3);
+        int[] ints = new int[1000];
+        long[] longs = {Long.MAX_VALUE, Long.MAX_VALUE, 1, 2, 3, -Long.MAX_VALUE, -Long.MAX_VALUE, 4};
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i % 2 == 0 ? Integer.MAX_VALUE : -i;
+        }
+        assertAll("Parallel add",
+            () -> assertEquals(calc.add(ints, 0, ints.length), calc.parallelAdd(ints, 0, ints.length), "Int sums should match"),
+            () -> assertEquals(calc.add(ints, 10, 900), calc.parallelAdd(IntStream.of(ints).skip(10).limit(890)), "Stream sum should match"),
+            () -> assertEquals(10, calc.parallelAdd(longs, 0, longs.length), "Wrapping halves should not be reported as overflow"),
+            () -> assertEquals(10, calc.parallelAdd(LongStream.of(longs)), "Stream should not report overflow either"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.parallelAdd(longs, 0, 3), "Overflow should be detected")
+        );
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("Test Parallel Multiply Method with Overflow and Zero")
+    void testParallelMultiply() {
+        calc.setParallelThreshold(2);
+        long[] factors = {2, 3, 4, 5, 6, 7};
+        long[] minValue = {-1, 1, -1, Long.MIN_VALUE, 1};
+        long[] overflowThenZero = {Long.MAX_VALUE, Long.MAX_VALUE, 0, 5};
+        assertAll("Parallel multiply",
+            () -> assertEquals(5040, calc.parallelMultiply(factors, 0, factors.length), "Product should be exact"),
+            () -> assertEquals(5040, calc.multiply(factors, 0, factors.length), "Sequential product should match"),
+            () -> assertEquals(Long.MIN_VALUE, calc.parallelMultiply(minValue, 0, minValue.length), "Order should not matter for MIN_VALUE"),
+            () -> assertEquals(0, calc.parallelMultiply(overflowThenZero, 0, overflowThenZero.length), "Zero should win over overflow"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.parallelMultiply(overflowThenZero, 0, 2), "Overflow should be detected"),
+            () -> assertEquals(3628800, calc.parallelMultiply(IntStream.rangeClosed(1, 10)), "Stream product should be exact"),
+            () -> assertThrows(IllegalArgumentException.class, () -> calc.setParallelThreshold(0), "Threshold must be positive")
+        );
+    }
+
+    @Test
+    @Order(28)
+    @DisplayName("Test Parallel Add Method Agrees with Sequential Add")
+    void testParallelAddAgrees() {
+        calc.setParallelThreshold(1 << 12);
+        int[] ints = new int[1 << 18];
+        long[] longs = new long[1 << 18];
+        java.util.Arrays.setAll(ints, i -> i * 31 + 7);
+        java.util.Arrays.setAll(longs, i -> i % 2 == 0 ? Long.MAX_VALUE - i % 5 : -Long.MAX_VALUE + i % 5);
+        long intSum = calc.add(ints, 0, ints.length);
+        long longSum = calc.add(longs, 0, longs.length);
+        for (int run = 0; run < 3; run++) {
+            assertEquals(intSum, calc.parallelAdd(ints, 0, ints.length), "Parallel int sum should match on every run");
+            assertEquals(longSum, calc.parallelAdd(longs, 0, longs.length), "Parallel long sum should match on every run");
+        }
+        assertEquals(calc.add(ints, 5, 200001), calc.parallelAdd(ints, 5, 200001), "Unaligned range should match");
+    }
+
+    @ParameterizedTest
+    @Order(29)
+    @CsvSource({
+        "WRAP, -2147483648, -2",
+        "SATURATE, 2147483647, 2147483647",
+        "WIDEN, 2147483648, 4294967294"
+    })
+    @DisplayName("Test Add and Multiply Methods with Overflow Modes")
+    void testOverflowModes(OverflowMode mode, long expectedSum, long expectedProduct) {
+        assertEquals(expectedSum, calc.add(Integer.MAX_VALUE, 1, mode), "Sum should follow the overflow mode");
+        assertEquals(expectedProduct, calc.multiply(Integer.MAX_VALUE, 2, mode), "Product should follow the overflow mode");
+        assertEquals(6, calc.multiply(2, 3, mode), "Product that fits should not change");
+    }
+
+    @Test
+    @Order(30)
+    @DisplayName("Test Exact Mode and Factorial with Overflow Modes")
+    void testExactModeAndFactorial() {
+        assertAll("Exact mode and factorial",
+            () -> assertThrows(ArithmeticException.class, () -> calc.add(Integer.MAX_VALUE, 1, OverflowMode.EXACT), "Exact add should throw"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.multiply(Integer.MIN_VALUE, -1, OverflowMode.EXACT), "Exact multiply should throw"),
+            () -> assertEquals(calc.factorial(25), calc.factorial(25, OverflowMode.WRAP), "Wrapping factorial should match factorial(int)"),
+            () -> assertEquals(Long.MAX_VALUE, calc.factorial(25, OverflowMode.SATURATE), "Saturated factorial should clamp"),
+            () -> assertThrows(ArithmeticException.class, () -> calc.factorial(21, OverflowMode.WIDEN), "21! should not fit a long"),
+            () -> assertEquals(120, calc.factorial(5, OverflowMode.EXACT), "5! should fit")
+        );
+    }
+
+    @Test
+    @Order(31)
+    @DisplayName("Test Batch Multiply and Divide with Error Bitmap")
+    void testBatchWithErrorBitmap() {
+        int[] a = {6, Integer.MAX_VALUE, Integer.MIN_VALUE, 7};
+        int[] b = {3, 2, -1, 0};
+        long[] out = new long[4];
+        BitSet errors = new BitSet();
+        errors.set(3);
+        assertEquals(2, calc.multiply(a, b, out, errors, OverflowMode.EXACT), "Two products should overflow");
+        assertArrayEquals(new long[] {18, 0, 0, 0}, out, "Overflowing products should be zeroed");
+        assertEquals(BitSet.valueOf(new long[] {0b0110}), errors, "Overflows should be flagged and old flags cleared");
+
+        assertEquals(2, calc.divide(a, b, out, errors, OverflowMode.EXACT), "Zero divisor and MIN_VALUE / -1 should be flagged");
+        assertEquals(BitSet.valueOf(new long[] {0b1100}), errors, "Only the failing elements should be flagged");
+        assertEquals(1, calc.divide(a, b, out, errors, OverflowMode.WIDEN), "Only the zero divisor should fail when widening");
+        assertArrayEquals(new long[] {2, Integer.MAX_VALUE / 2, 2147483648L, 0}, out, "Quotients should be widened");
+    }
 }
@@ -0,0 +1,70 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import main.najah.code.Calculator;
+import main.najah.code.Combinatorics;
+
+class CombinatoricsTest {
+
+    Combinatorics combinatorics;
+
+    @BeforeEach
+    void setUp() {
+        combinatorics = new Combinatorics(1000);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "5, 2, 10, 20",
+        "10, 0, 1, 1",
+        "10, 10, 1, 3628800",
+        "20, 10, 184756, 442568110",
+        "7, 8, 0, 0",
+        "7, -1, 0, 0"
+    })
+    @DisplayName("Test nCr and nPr for single queries")
+    void testSingleQueries(int n, int k, int expectedCombinations, int expectedPermutations) {
+        assertEquals(expectedCombinations, combinatorics.nCr(n, k), "nCr should match");
+        assertEquals(expectedPermutations, combinatorics.nPr(n, k), "nPr should match");
+    }
+
+    @Test
+    @DisplayName("Test factorial table matches Calculator")
+    void testFactorialTable() {
+        Calculator calc = new Calculator();
+        assertAll("Factorial table",
+            () -> assertEquals(calc.factorial(12), combinatorics.factorial(12), "12! should be below the modulus"),
+            () -> assertEquals(calc.factorial(20) % Combinatorics.DEFAULT_MODULUS, combinatorics.factorial(20), "20! should be reduced")
+        );
+    }
+
+    @Test
+    @DisplayName("Test batch queries fill the result array")
+    void testBatchQueries() {
+        int[] n = {5, 20, 1000, 3};
+        int[] k = {2, 10, 500, 4};
+        int[] combinations = new int[4];
+        int[] permutations = new int[4];
+        combinatorics.nCr(n, k, combinations);
+        combinatorics.nPr(n, k, permutations);
+        for (int i = 0; i < n.length; i++) {
+            assertEquals(combinatorics.nCr(n[i], k[i]), combinations[i], "Batch nCr should match query " + i);
+            assertEquals(combinatorics.nPr(n[i], k[i]), permutations[i], "Batch nPr should match query " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Test invalid tables and queries")
+    void testInvalidArguments() {
+        assertAll("Invalid arguments",
+            () -> assertThrows(IllegalArgumentException.class, () -> new Combinatorics(10, 12), "Modulus must be prime"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new Combinatorics(13, 13), "Maximum n must be below the modulus"),
+            () -> assertThrows(IllegalArgumentException.class, () -> combinatorics.nCr(1001, 1), "n must be in the table"),
+            () -> assertThrows(IllegalArgumentException.class, () -> combinatorics.nCr(new int[2], new int[1], new int[2]), "Query arrays must match")
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import main.najah.code.CompiledExpression;
+import main.najah.code.ExpressionEngine;
+
+import java.util.Arrays;
+
+class ExpressionEngineTest {
+
+    ExpressionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ExpressionEngine();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "1 + 2 * 3; 7",
+        "(1 + 2) * 3; 9",
+        "-2 * -3; 6",
+        "divide(10, 3) + 3!; 9",
+        "add(1, 2, 3, 4) * multiply(2, 5); 100",
+        "2 * (3 + 4)! / 7; 1440"
+    })
+    @DisplayName("Test constant formulas are folded")
+    void testConstantFolding(String formula, long expected) {
+        CompiledExpression expression = engine.compile(formula);
+        assertAll("Constant formula",
+            () -> assertTrue(expression.isConstant(), "Formula without variables should fold to a constant"),
+            () -> assertEquals(expected, expression.evaluate(new long[0]), "Folded value should match")
+        );
+    }
+
+    @Test
+    @DisplayName("Test evaluating with variable bindings")
+    void testVariables() {
+        CompiledExpression expression = engine.compile("price * qty - discount + price");
+        assertAll("Variables",
+            () -> assertEquals(Arrays.asList("price", "qty", "discount"), expression.getVariables(), "Variables should be in order of appearance"),
+            () -> assertEquals(2, expression.indexOf("discount"), "Discount should be the third value"),
+            () -> assertFalse(expression.isConstant(), "Formula with variables should not be constant"),
+            () -> assertEquals(35, expression.evaluate(new long[] {10, 3, 5}), "First binding should evaluate"),
+            () -> assertEquals(7, expression.evaluate(new long[] {2, 3, 1}), "Second binding should evaluate"),
+            () -> assertThrows(IllegalArgumentException.class, () -> expression.evaluate(new long[2]), "Every variable needs a value")
+        );
+    }
+
+    @Test
+    @DisplayName("Test compiled formulas are cached by text")
+    void testCache() {
+        CompiledExpression first = engine.compile("a + 1");
+        assertSame(first, engine.compile("a + 1"), "Same text should return the cached formula");
+        assertEquals(1, engine.cacheSize(), "Cache should hold one formula");
+        ExpressionEngine small = new ExpressionEngine(1);
+        small.compile("a + 1");
+        small.compile("a + 2");
+        assertEquals(1, small.cacheSize(), "Cache should evict beyond its size");
+    }
+
+    @Test
+    @DisplayName("Test arithmetic errors at evaluation")
+    void testArithmeticErrors() {
+        CompiledExpression divide = engine.compile("x / 0");
+        CompiledExpression overflow = engine.compile("x * 9223372036854775807");
+        CompiledExpression factorial = engine.compile("x!");
+        assertAll("Arithmetic errors",
+            () -> assertThrows(ArithmeticException.class, () -> divide.evaluate(new long[] {1}), "Division by zero should throw"),
+            () -> assertThrows(ArithmeticException.class, () -> overflow.evaluate(new long[] {2}), "Overflow should throw"),
+            () -> assertEquals(120, factorial.evaluate(new long[] {5}), "Factorial should evaluate"),
+            () -> assertThrows(IllegalArgumentException.class, () -> factorial.evaluate(new long[] {-1}), "Negative factorial should throw"),
+            () -> assertThrows(ArithmeticException.class, () -> engine.compile("1 / 0").evaluate(new long[0]), "Folding should not hide errors")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1 +", "(1", "1 2", "foo(1)", "divide(1)", "2 $ 3", "99999999999999999999"})
+    @DisplayName("Test invalid formulas are rejected")
+    void testInvalidFormulas(String formula) {
+        assertThrows(IllegalArgumentException.class, () -> engine.compile(formula), "Formula should not parse");
+    }
+}
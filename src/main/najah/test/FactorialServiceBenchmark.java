@@ -0,0 +1,43 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import main.najah.code.FactorialService;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing runs for FactorialService. Tagged "benchmark" and kept out of
+ * AllTestsSuite; run this class on its own on an otherwise idle machine.
+ */
+@Tag("benchmark")
+@Execution(ExecutionMode.SAME_THREAD)
+@DisplayName("Factorial Service Benchmarks")
+public class FactorialServiceBenchmark {
+
+    private final FactorialService factorials = new FactorialService();
+
+    @Test
+    @DisplayName("Benchmark 100000! Computed and Cached")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void benchmarkHundredThousandFactorial() {
+        long computeNanos = Long.MAX_VALUE;
+        long cachedNanos = Long.MAX_VALUE;
+        //Best of several runs, clearing the cache so each one computes again
+        for (int run = 0; run < 5; run++) {
+            factorials.clearCache();
+            long start = System.nanoTime();
+            BigInteger result = factorials.factorial(100000);
+            computeNanos = Math.min(computeNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            BigInteger cached = factorials.factorial(100000);
+            cachedNanos = Math.min(cachedNanos, System.nanoTime() - start);
+            assertSame(result, cached, "Second call should come from the cache");
+        }
+        System.out.println("100000!: " + computeNanos / 1000000 + " ms, cached: " + cachedNanos / 1000 + " us");
+    }
+}
@@ -0,0 +1,59 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Calculator;
+import main.najah.code.FactorialService;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+class FactorialServiceTest {
+
+    FactorialService factorials;
+
+    @BeforeEach
+    void setUp() {
+        factorials = new FactorialService();
+    }
+
+    @Test
+    @DisplayName("Test small factorials come from the table")
+    void testSmallFactorials() {
+        assertAll("Small factorials",
+            () -> assertEquals(BigInteger.ONE, factorials.factorial(0), "0! should be 1"),
+            () -> assertEquals(BigInteger.valueOf(2432902008176640000L), factorials.factorial(20), "20! should fit in a long"),
+            () -> assertEquals(2432902008176640000L, factorials.factorialExact(20), "20! should be exact"),
+            () -> assertThrows(ArithmeticException.class, () -> factorials.factorialExact(21), "21! should not fit in a long"),
+            () -> assertThrows(IllegalArgumentException.class, () -> factorials.factorial(-1), "Negative input should be rejected")
+        );
+    }
+
+    @Test
+    @DisplayName("Test large factorials match the naive product")
+    void testLargeFactorials() {
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 1; i <= 5000; i++) {
+            expected = expected.multiply(BigInteger.valueOf(i));
+            if (i > 20 && i % 97 == 0) {
+                assertEquals(expected, factorials.factorial(i), i + "! should match the naive product");
+            }
+        }
+        assertEquals(expected, factorials.factorial(5000), "5000! should match the naive product");
+        assertEquals(new Calculator().factorial(25), factorials.factorial(25).longValue(), "Calculator should keep wrapping past 20!");
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test 100000! and the cache")
+    void testHundredThousandFactorial() {
+        BigInteger result = factorials.factorial(100000);
+        BigInteger cached = factorials.factorial(100000);
+        assertAll("100000!",
+            () -> assertEquals(1516705, result.bitLength(), "100000! should have 1516705 bits"),
+            () -> assertEquals(99994, result.getLowestSetBit(), "100000! should have 99994 factors of two"),
+            () -> assertSame(result, cached, "Second call should come from the cache")
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Money;
+import main.najah.code.Product;
+import main.najah.code.ProductCatalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Test converting to cents and basis points")
+    void testConversions() {
+        assertAll("Conversions",
+            () -> assertEquals(1999, Money.toCents(19.99), "19.99 should be 1999 cents"),
+            () -> assertEquals(30, Money.toCents(0.1 + 0.2), "0.1 + 0.2 should be 30 cents"),
+            () -> assertEquals(1250, Money.toBasisPoints(12.5), "12.5% should be 1250 basis points"),
+            () -> assertEquals("-12.05", Money.format(-1205), "Negative amounts should keep the sign"),
+            () -> assertEquals("0.05", Money.format(5), "Cents should be zero-padded")
+        );
+    }
+
+    @Test
+    @DisplayName("Test final price with each rounding mode")
+    void testFinalPrice() {
+        //1999 * 0.85 = 1699.15 cents
+        assertAll("Final price",
+            () -> assertEquals(1699, Money.finalPrice(1999, 1500, RoundingMode.HALF_EVEN)),
+            () -> assertEquals(1700, Money.finalPrice(1999, 1500, RoundingMode.CEILING)),
+            () -> assertEquals(1699, Money.finalPrice(1999, 1500, RoundingMode.FLOOR)),
+            //5 * 0.5 = 2.5 cents
+            () -> assertEquals(2, Money.finalPrice(5, 5000, RoundingMode.HALF_EVEN), "Half should round to even"),
+            () -> assertEquals(3, Money.finalPrice(5, 5000, RoundingMode.HALF_UP), "Half should round up"),
+            () -> assertEquals(2, Money.finalPrice(5, 5000, RoundingMode.HALF_DOWN), "Half should round down"),
+            () -> assertEquals(1000, Money.finalPrice(1000, 0, RoundingMode.UNNECESSARY), "Exact results need no rounding"),
+            () -> assertThrows(ArithmeticException.class, () -> Money.finalPrice(5, 5000, RoundingMode.UNNECESSARY)),
+            () -> assertThrows(IllegalArgumentException.class, () -> Money.finalPrice(100, 5001, RoundingMode.HALF_UP), "Discount over 50% should be rejected"),
+            () -> assertThrows(ArithmeticException.class, () -> Money.finalPrice(Long.MAX_VALUE, 0, RoundingMode.HALF_UP), "Overflow should not wrap")
+        );
+    }
+
+    @Test
+    @DisplayName("Test divide matches BigDecimal for every rounding mode")
+    void testDivideMatchesBigDecimal() {
+        Random random = new Random(21);
+        for (int i = 0; i < 10000; i++) {
+            long n = random.nextInt(2000001) - 1000000;
+            long d = 1 + random.nextInt(i % 2 == 0 ? 10000 : 7);
+            for (RoundingMode mode : RoundingMode.values()) {
+                BigDecimal q;
+                try {
+                    q = BigDecimal.valueOf(n).divide(BigDecimal.valueOf(d), 0, mode);
+                } catch (ArithmeticException e) {
+                    assertThrows(ArithmeticException.class, () -> Money.divide(n, d, mode));
+                    continue;
+                }
+                assertEquals(q.longValueExact(), Money.divide(n, d, mode), n + " / " + d + " " + mode);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test Product and catalog fixed-point prices")
+    void testProductCents() {
+        Product product = new Product("Coffee", 19.99);
+        product.applyDiscount(15);
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.add(product);
+        long[] out = new long[1];
+        catalog.getFinalPricesCents(0, 1, out, 0, RoundingMode.HALF_EVEN);
+        assertAll("Product cents",
+            () -> assertEquals(1699, product.getFinalPriceCents(RoundingMode.HALF_EVEN)),
+            () -> assertEquals(1699, out[0], "Catalog should round like Product")
+        );
+    }
+
+    @Test
+    @DisplayName("Test bulk final prices and exact total")
+    void testBulk() {
+        long[] prices = {1999, 5, 100000};
+        int[] discounts = {1500, 5000, 1000};
+        long[] out = new long[3];
+        Money.finalPrices(prices, discounts, out, RoundingMode.HALF_EVEN);
+        assertAll("Bulk",
+            () -> assertArrayEquals(new long[] {1699, 2, 90000}, out),
+            () -> assertEquals(91701, Money.total(prices, discounts, RoundingMode.HALF_EVEN), "Total should be the sum of rounded prices"),
+            () -> assertThrows(IllegalArgumentException.class, () -> Money.total(prices, new int[2], RoundingMode.HALF_EVEN), "Lengths should match")
+        );
+    }
+}
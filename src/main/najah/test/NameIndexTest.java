@@ -0,0 +1,113 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.NameIndex;
+import main.najah.code.Product;
+import main.najah.code.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class NameIndexTest {
+
+    NameIndex<Product> index;
+    Product laptop;
+    Product lamp;
+    Product phone;
+
+    @BeforeEach
+    void setUp() {
+        laptop = new Product("Laptop", 1000);
+        lamp = new Product("lamp", 40);
+        phone = new Product("Phone", 500);
+        index = NameIndex.ofProducts(Arrays.asList(laptop, lamp, phone));
+    }
+
+    @Test
+    @DisplayName("Test exact and case-insensitive lookup")
+    void testExactLookup() {
+        assertAll("Exact lookup",
+            () -> assertEquals(3, index.size(), "Index should hold 3 products"),
+            () -> assertSame(laptop, index.get("Laptop"), "Exact name should be found"),
+            () -> assertNull(index.get("laptop"), "Exact lookup should match case"),
+            () -> assertEquals(List.of(laptop), index.findIgnoreCase("LAPTOP"), "Case-insensitive lookup should ignore case"),
+            () -> assertTrue(index.find("Tablet").isEmpty(), "Unknown name should not be found"),
+            () -> assertNull(index.get(null), "Null name should not be found")
+        );
+    }
+
+    @Test
+    @DisplayName("Test prefix lookup in name order")
+    void testPrefixLookup() {
+        assertAll("Prefix lookup",
+            () -> assertEquals(List.of(lamp, laptop), index.startingWithIgnoreCase("la", 10), "Results should be in name order"),
+            () -> assertEquals(List.of(laptop), index.startingWith("La", 10), "Prefix lookup should match case"),
+            () -> assertEquals(List.of(lamp), index.startingWithIgnoreCase("LA", 1), "Results should stop at the limit"),
+            () -> assertEquals(3, index.startingWith("", 10).size(), "Empty prefix should match everything"),
+            () -> assertThrows(IllegalArgumentException.class, () -> index.startingWith("a", -1), "Limit should not be negative")
+        );
+    }
+
+    @Test
+    @DisplayName("Test incremental add and remove")
+    void testAddAndRemove() {
+        Product lantern = new Product("Lantern", 25);
+        Product otherLamp = new Product("lamp", 60);
+        index.add(lantern);
+        index.add(otherLamp);
+        assertAll("After add",
+            () -> assertEquals(5, index.size()),
+            () -> assertEquals(2, index.find("lamp").size(), "Duplicate names should both be indexed"),
+            () -> assertEquals(4, index.startingWithIgnoreCase("la", 10).size())
+        );
+        assertTrue(index.remove(lamp), "Indexed product should be removed");
+        assertFalse(index.remove(lamp), "Removed product should not be removed twice");
+        assertFalse(index.remove(new Product("Laptop", 1000)), "Only the indexed instance should be removed");
+        assertAll("After remove",
+            () -> assertEquals(4, index.size()),
+            () -> assertEquals(List.of(otherLamp), index.find("lamp"), "Other product with the same name should stay"),
+            () -> assertThrows(IllegalArgumentException.class, () -> index.add(new Product(null, 1)), "Name should not be null")
+        );
+    }
+
+    @Test
+    @DisplayName("Test indexing recipes")
+    void testRecipes() {
+        Recipe mocha = new Recipe();
+        mocha.setName("Mocha");
+        Recipe macchiato = new Recipe();
+        macchiato.setName("Macchiato");
+        NameIndex<Recipe> recipes = NameIndex.ofRecipes(Arrays.asList(mocha, macchiato));
+        assertAll("Recipes",
+            () -> assertSame(mocha, recipes.get("Mocha")),
+            () -> assertEquals(List.of(macchiato, mocha), recipes.startingWithIgnoreCase("m", 10))
+        );
+    }
+
+    @Test
+    @DisplayName("Test many names across blocks")
+    void testManyNames() {
+        List<Product> products = new ArrayList<Product>();
+        for (int i = 0; i < 5000; i++) {
+            products.add(new Product("Item " + i, i));
+        }
+        NameIndex<Product> big = NameIndex.ofProducts(products);
+        for (int i = 5000; i < 10000; i++) {
+            big.add(new Product("Item " + i, i));
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(big.remove(products.get(i)));
+        }
+        assertAll("Many names",
+            () -> assertEquals(7500, big.size()),
+            () -> assertNull(big.get("Item 42"), "Removed name should not be found"),
+            () -> assertEquals(43, (int) big.get("Item 43").getPrice(), "Kept name should be found"),
+            () -> assertEquals(1, big.find("Item 9999").size(), "Added name should be found"),
+            //Odd ones of Item 12, 120-129 and 1200-1299
+            () -> assertEquals(55, big.startingWith("Item 12", 100).size(), "Prefix should span blocks")
+        );
+    }
+}
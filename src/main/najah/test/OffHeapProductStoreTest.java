@@ -0,0 +1,83 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import main.najah.code.OffHeapProductStore;
+import main.najah.code.Product;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+class OffHeapProductStoreTest {
+
+    OffHeapProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = OffHeapProductStore.allocate(100, 1000);
+        store.add("Laptop", 1000);
+    }
+
+    @Test
+    @DisplayName("Test final price matches Product")
+    void testFinalPrice() {
+        store.applyDiscount(0, 10);
+        Product product = new Product("Laptop", 1000);
+        product.applyDiscount(10);
+        assertAll("Off-heap product",
+            () -> assertEquals("Laptop", store.getName(0), "Name should be stored"),
+            () -> assertEquals(1000, store.getPrice(0), "Price should be stored"),
+            () -> assertEquals(10, store.getDiscount(0), "Discount should be stored"),
+            () -> assertEquals(product.getFinalPrice(), store.getFinalPrice(0), "Final price should match Product")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-5, 50.5, 60, 150})
+    @DisplayName("Test invalid discounts are rejected like Product")
+    void testInvalidDiscount(double discount) {
+        assertThrows(IllegalArgumentException.class, () -> store.applyDiscount(0, discount), "Discount should be rejected");
+        assertEquals(0, store.getDiscount(0), "Rejected discount should not be stored");
+    }
+
+    @Test
+    @DisplayName("Test store capacity and row checks")
+    void testCapacity() {
+        OffHeapProductStore small = OffHeapProductStore.allocate(2, 4);
+        small.add("Pen", 1);
+        assertAll("Capacity",
+            () -> assertThrows(IllegalStateException.class, () -> small.add("Book", 2), "Names should not exceed their region"),
+            () -> assertEquals(1, small.add("", 2), "Empty name should still fit"),
+            () -> assertThrows(IllegalStateException.class, () -> small.add("", 3), "Rows should not exceed the capacity"),
+            () -> assertThrows(IllegalArgumentException.class, () -> store.add("Phone", -1), "Price should not be negative"),
+            () -> assertThrows(IndexOutOfBoundsException.class, () -> store.getFinalPrice(1), "Row should exist")
+        );
+    }
+
+    @Test
+    @DisplayName("Test file-backed store survives reopening")
+    void testMappedStore(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("products.bin");
+        OffHeapProductStore mapped = OffHeapProductStore.open(file, 1000, 10000);
+        for (int i = 0; i < 1000; i++) {
+            mapped.add("SKU-" + i, i);
+            mapped.applyDiscount(i, i % 51);
+        }
+        mapped.close();
+
+        OffHeapProductStore reopened = OffHeapProductStore.open(file, 1, 1);
+        double[] prices = new double[1000];
+        reopened.getFinalPrices(0, 1000, prices, 0);
+        assertAll("Reopened store",
+            () -> assertEquals(1000, reopened.size(), "Every product should be kept"),
+            () -> assertEquals(1000, reopened.capacity(), "File capacity should win"),
+            () -> assertEquals("SKU-999", reopened.getName(999), "Names should be kept"),
+            () -> assertEquals(999 * (1 - 30 / 100.0), prices[999], "Bulk price should use the kept discount")
+        );
+        reopened.close();
+    }
+}
@@ -0,0 +1,183 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Inventory;
+import main.najah.code.Order;
+import main.najah.code.OrderPipeline;
+import main.najah.code.OrderResult;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class OrderPipelineTest {
+
+    RecipeBook recipeBook;
+    Inventory inventory;
+    List<OrderResult> results;
+    List<Integer> batchSizes;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        recipeBook = new RecipeBook();
+        Recipe latte = new Recipe();
+        latte.setName("Latte");
+        latte.setPrice("50");
+        latte.setAmtCoffee("1");
+        latte.setAmtMilk("2");
+        recipeBook.addRecipe(latte);
+        inventory = new Inventory(3, 100, 100, 100);
+        results = Collections.synchronizedList(new ArrayList<OrderResult>());
+        batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+    }
+
+    private OrderPipeline pipeline(int batchSize) {
+        return new OrderPipeline(recipeBook, inventory, batch -> {
+            batchSizes.add(batch.size());
+            results.addAll(batch);
+        }, batchSize, 50, 4);
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test every order gets a result in order")
+    void testOrderResults() throws InterruptedException {
+        OrderPipeline pipeline = pipeline(16);
+        pipeline.submit(new Order(1, "Latte", 75));
+        pipeline.submit(new Order(2, "Mocha", 75));
+        pipeline.submit(new Order(3, "Latte", 20));
+        pipeline.submit(new Order(4, "", 75));
+        pipeline.submit(new Order(5, "Latte", 50));
+        pipeline.submit(new Order(6, "Latte", 50));
+        pipeline.submit(new Order(7, "Latte", 50));
+        pipeline.close();
+
+        assertEquals(7, results.size(), "Every order should have a result");
+        assertAll("Order results",
+            () -> assertEquals(OrderResult.Status.BREWED, results.get(0).getStatus(), "Order 1 should be brewed"),
+            () -> assertEquals(25, results.get(0).getChange(), "Order 1 should get 25 back"),
+            () -> assertEquals(OrderResult.Status.UNKNOWN_RECIPE, results.get(1).getStatus(), "Order 2 is not on the menu"),
+            () -> assertEquals(OrderResult.Status.INSUFFICIENT_FUNDS, results.get(2).getStatus(), "Order 3 paid too little"),
+            () -> assertEquals(20, results.get(2).getChange(), "Order 3 should be refunded"),
+            () -> assertEquals(OrderResult.Status.INVALID, results.get(3).getStatus(), "Order 4 has no recipe"),
+            () -> assertEquals(OrderResult.Status.BREWED, results.get(5).getStatus(), "Order 6 should use the last coffee"),
+            () -> assertEquals(OrderResult.Status.OUT_OF_STOCK, results.get(6).getStatus(), "Order 7 should run out of coffee")
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test orders are processed in batches")
+    void testBatching() throws InterruptedException {
+        inventory.addIngredients(1000, 2000, 0, 0);
+        OrderPipeline pipeline = pipeline(10);
+        for (int i = 0; i < 100; i++) {
+            pipeline.submit(new Order(i, "Latte", 50));
+        }
+        pipeline.close();
+        assertEquals(100, results.size(), "Every order should have a result");
+        assertTrue(batchSizes.stream().allMatch(n -> n <= 10), "No batch should exceed the batch size");
+        assertTrue(batchSizes.size() < 100, "Orders should be grouped into batches");
+    }
+
+    @Test
+    @DisplayName("Test closed pipeline rejects orders")
+    void testClosedPipeline() throws InterruptedException {
+        OrderPipeline pipeline = pipeline(4);
+        pipeline.close();
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(new Order(1, "Latte", 50)),
+            "Closed pipeline should reject orders");
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Test every accepted order is emitted when closing during submissions")
+    void testCloseDuringSubmissions() throws InterruptedException {
+        OrderPipeline pipeline = pipeline(8);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> submitters = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread submitter = new Thread(() -> {
+                try {
+                    for (int i = 0; ; i++) {
+                        pipeline.submit(new Order(i, "Latte", 50));
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    //Pipeline closed
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+        Thread.sleep(50);
+        pipeline.close();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        assertEquals(accepted.get(), results.size(), "Every accepted order should have a result");
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test a throwing stage fails its batch and the pipeline still closes")
+    void testStageFailure() throws InterruptedException {
+        Recipe broken = new Recipe() {
+            public int getPrice() {
+                throw new IllegalStateException("Price list unavailable");
+            }
+        };
+        broken.setName("Broken");
+        recipeBook.addRecipe(broken);
+        OrderPipeline pipeline = pipeline(1);
+        pipeline.submit(new Order(1, "Broken", 50));
+        pipeline.submit(new Order(2, "Latte", 50));
+        pipeline.close();
+
+        assertEquals(2, results.size(), "Every order should have a result");
+        assertAll("Results after a stage failure",
+            () -> assertEquals(OrderResult.Status.FAILED, results.get(0).getStatus(), "Order 1 should fail"),
+            () -> assertEquals(50, results.get(0).getChange(), "Order 1 should be refunded"),
+            () -> assertEquals(OrderResult.Status.BREWED, results.get(1).getStatus(), "Order 2 should be brewed")
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    @DisplayName("Test a throwing sink does not stop the pipeline")
+    void testSinkFailure() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        OrderPipeline pipeline = new OrderPipeline(recipeBook, inventory, batch -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            results.addAll(batch);
+        }, 1, 50, 4);
+        pipeline.submit(new Order(1, "Latte", 50));
+        pipeline.submit(new Order(2, "Latte", 50));
+        pipeline.close();
+
+        assertAll("Results after a sink failure",
+            () -> assertEquals(2, calls.get(), "Both batches should reach the sink"),
+            () -> assertEquals(1, results.size(), "Batch after the failure should be delivered"),
+            () -> assertEquals(2, results.get(0).getOrder().getId(), "Order 2 should be delivered")
+        );
+    }
+
+    @Test
+    @DisplayName("Test invalid configuration")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new OrderPipeline(recipeBook, inventory, batch -> { }, 0, 1, 1),
+            "Batch size must be positive");
+    }
+}
@@ -0,0 +1,98 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.CompiledPricingRules;
+import main.najah.code.PricingEngine;
+import main.najah.code.PricingRules;
+import main.najah.code.Product;
+import main.najah.code.ProductCatalog;
+
+class PricingEngineTest {
+
+    PricingRules rules;
+    ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        rules = new PricingRules()
+            .tier(100, 5)
+            .tier(500, 10)
+            .categoryDiscount("Coffee", 15)
+            .categoryDiscount("Gear", 25)
+            .categoryCap("Gear", 30)
+            .categoryCap("Books", 5);
+        catalog = new ProductCatalog();
+        catalog.add("Mug", 50, "Gear");
+        catalog.add("Grinder", 600, "Gear");
+        catalog.add("Beans", 200, "Coffee");
+        catalog.add("Atlas", 800, "Books");
+        catalog.add("Laptop", 1000);
+    }
+
+    @Test
+    @DisplayName("Test tiers, category discounts and caps")
+    void testDiscounts() {
+        CompiledPricingRules compiled = rules.compile();
+        assertAll("Discounts",
+            () -> assertEquals(25, compiled.getDiscount(50, "Gear"), "Below every tier only the category applies"),
+            () -> assertEquals(30, compiled.getDiscount(600, "Gear"), "Tier and category should stack up to the cap"),
+            () -> assertEquals(20, compiled.getDiscount(200, "Coffee"), "Tier and category should stack"),
+            () -> assertEquals(5, compiled.getDiscount(800, "Books"), "Category cap should limit the tier"),
+            () -> assertEquals(10, compiled.getDiscount(1000, ""), "Highest tier below the price should apply"),
+            () -> assertEquals(0, compiled.getDiscount(100, ""), "Tier should apply only above its threshold")
+        );
+    }
+
+    @Test
+    @DisplayName("Test stacking is limited by the maximum discount")
+    void testMaxDiscount() {
+        CompiledPricingRules compiled = new PricingRules().tier(0, 40).categoryDiscount("Coffee", 40).compile();
+        CompiledPricingRules lowered = new PricingRules().tier(0, 40).maxDiscount(20).compile();
+        assertAll("Maximum",
+            () -> assertEquals(50, compiled.getDiscount(10, "Coffee"), "Stacked discounts should stop at 50%"),
+            () -> assertEquals(20, lowered.getDiscount(10, "Coffee"), "Lower maximum should apply"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new PricingRules().tier(10, 60), "Discount should not exceed 50%"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new PricingRules().categoryCap(null, 10), "Category should not be null"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new PricingRules().tier(Double.NaN, 10), "Threshold should be a number")
+        );
+    }
+
+    @Test
+    @DisplayName("Test bulk pricing matches single products")
+    void testBulkPricing() {
+        CompiledPricingRules compiled = rules.compile();
+        double[] prices = new double[catalog.size()];
+        compiled.getFinalPrices(catalog, prices);
+        for (int row = 0; row < catalog.size(); row++) {
+            assertEquals(compiled.getFinalPrice(catalog.get(row)), prices[row], "Row " + row);
+        }
+        int changed = compiled.apply(catalog);
+        assertAll("Bulk",
+            () -> assertEquals("Gear", catalog.getCategory(0), "Catalog should keep the category"),
+            () -> assertEquals(420, prices[1], 1e-9, "Grinder should get 30% off"),
+            () -> assertEquals(5, changed, "Every discounted row should change"),
+            () -> assertEquals(0, compiled.apply(catalog), "Applying twice should not change anything"),
+            () -> assertEquals(prices[2], catalog.getFinalPrice(2), 1e-9, "Applied discount should give the rule price")
+        );
+    }
+
+    @Test
+    @DisplayName("Test swapping rule sets")
+    void testSwap() {
+        PricingEngine engine = new PricingEngine();
+        Product beans = new Product("Beans", 200, "Coffee");
+        assertEquals(200, engine.getFinalPrice(beans), "Engine without rules should give no discount");
+        CompiledPricingRules previous = engine.getRules();
+        engine.setRules(rules);
+        CompiledPricingRules current = engine.getRules();
+        assertAll("Swap",
+            () -> assertEquals(160, engine.getFinalPrice(beans), 1e-9, "New rules should apply"),
+            () -> assertFalse(engine.compareAndSetRules(previous, previous), "Stale rules should not be swapped back"),
+            () -> assertTrue(engine.compareAndSetRules(current, previous), "Current rules should be swapped"),
+            () -> assertEquals(200, engine.getFinalPrice(beans), "Old rules should apply again"),
+            () -> assertThrows(IllegalArgumentException.class, () -> engine.setRules((CompiledPricingRules) null))
+        );
+    }
+}
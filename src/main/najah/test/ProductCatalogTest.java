@@ -0,0 +1,116 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Product;
+import main.najah.code.ProductCatalog;
+
+import java.util.Arrays;
+
+class ProductCatalogTest {
+
+    ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductCatalog();
+        catalog.add("Laptop", 1000);
+        catalog.add("Phone", 500);
+    }
+
+    @Test
+    @DisplayName("Test adding and looking up products")
+    void testAddAndLookup() {
+        assertAll("Catalog lookup",
+            () -> assertEquals(2, catalog.size(), "Catalog should hold 2 products"),
+            () -> assertEquals(1, catalog.rowOf("Phone"), "Phone should be in row 1"),
+            () -> assertEquals(-1, catalog.rowOf("Tablet"), "Unknown name should not be found"),
+            () -> assertEquals(-1, catalog.add("Phone", 400), "Duplicate name should be rejected"),
+            () -> assertEquals(500, catalog.getPrice(1), "Duplicate should not change the price"),
+            () -> assertThrows(IllegalArgumentException.class, () -> catalog.add("Tablet", -1), "Price should not be negative")
+        );
+    }
+
+    @Test
+    @DisplayName("Test discounts follow Product rules")
+    void testDiscounts() {
+        catalog.applyDiscount(0, 10);
+        Product product = new Product("Laptop", 1000);
+        product.applyDiscount(10);
+        assertAll("Catalog discounts",
+            () -> assertEquals(product.getFinalPrice(), catalog.getFinalPrice(0), "Final price should match Product"),
+            () -> assertEquals(10, catalog.get(0).getDiscount(), "Product copy should keep the discount"),
+            () -> assertThrows(IllegalArgumentException.class, () -> catalog.applyDiscount(0, 60), "Discount should not exceed 50%"),
+            () -> assertThrows(IllegalArgumentException.class, () -> catalog.applyDiscount(0, -5), "Discount should not be negative"),
+            () -> assertThrows(IndexOutOfBoundsException.class, () -> catalog.applyDiscount(5, 10), "Row should exist")
+        );
+    }
+
+    @Test
+    @DisplayName("Test bulk final prices of a large catalog")
+    void testBulkFinalPrices() {
+        ProductCatalog large = new ProductCatalog();
+        Product[] products = new Product[100000];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product("SKU-" + i, i % 997);
+            products[i].applyDiscount(i % 51);
+            assertEquals(i, large.add(products[i]), "Rows should be handed out in order");
+        }
+        double[] prices = new double[products.length];
+        large.getFinalPrices(prices);
+        double[] part = new double[12];
+        large.getFinalPrices(500, 510, part, 2);
+        for (int i = 0; i < products.length; i++) {
+            assertEquals(products[i].getFinalPrice(), prices[i], "Bulk price should match Product for row " + i);
+        }
+        assertArrayEquals(Arrays.copyOfRange(prices, 500, 510), Arrays.copyOfRange(part, 2, 12), "Range should land at the offset");
+        assertEquals(99999, large.rowOf("SKU-99999"), "Dictionary should survive growth");
+    }
+
+    @Test
+    @DisplayName("Test searching names by prefix and ignoring case")
+    void testNameSearch() {
+        catalog.add("Laptop Bag", 40);
+        int[] before = catalog.rowsStartingWith("Lap", 10);
+        //Rows added after the first search must be found too, also across growth
+        for (int i = 0; i < 100; i++) {
+            catalog.add("Cable " + i, 5);
+        }
+        int bag = catalog.rowOf("Laptop Bag");
+        int stand = catalog.add("laptop stand", 30);
+        assertAll("Name search",
+            () -> assertArrayEquals(new int[] {0, bag}, before, "Prefix should match in name order"),
+            () -> assertArrayEquals(new int[] {0, bag}, catalog.rowsStartingWith("Lap", 10), "Prefix should match case"),
+            () -> assertArrayEquals(new int[] {0, bag, stand}, catalog.rowsStartingWithIgnoreCase("LAP", 10),
+                "Rows added after the first search should be found"),
+            () -> assertEquals(100, catalog.rowsStartingWith("Cable", 1000).length, "Every cable should be found"),
+            () -> assertEquals(3, catalog.rowsStartingWith("Cable", 3).length, "Limit should be respected"),
+            () -> assertArrayEquals(new int[] {1}, catalog.rowsIgnoreCase("PHONE"), "Exact name should match ignoring case"),
+            () -> assertEquals(0, catalog.rowsStartingWith("Tablet", 10).length, "Unknown prefix should match nothing")
+        );
+    }
+
+    @Test
+    @DisplayName("Test capacities whose dictionary cannot be allocated are rejected")
+    void testCapacityTooLarge() {
+        assertAll("Capacity",
+            () -> assertThrows(IllegalArgumentException.class, () -> new ProductCatalog((1 << 29) + 1),
+                "Capacity above 2^29 should be rejected"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new ProductCatalog(Integer.MAX_VALUE),
+                "Largest int capacity should be rejected"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new ProductCatalog(-1),
+                "Negative capacity should be rejected")
+        );
+    }
+
+    @Test
+    @DisplayName("Test building a catalog from products")
+    void testOf() {
+        Product discounted = new Product("Laptop", 1000);
+        discounted.applyDiscount(20);
+        ProductCatalog copy = ProductCatalog.of(Arrays.asList(discounted, new Product("Laptop", 5), new Product("Mouse", 20)));
+        assertEquals(2, copy.size(), "Duplicate names should be skipped");
+        assertEquals(800, copy.getFinalPrice(0), "Discount should be copied");
+    }
+}
@@ -120,4 +120,61 @@ class ProductTest {
         assertEquals(1500, specialCharProduct.getPrice(), 
             "Product price should be 1500");
     }
+
+    @Test
+    @DisplayName("Test change counter and cached final price")
+    void testChangeCount() {
+        assertEquals(0, product.getChangeCount(), "New product should have no changes");
+        assertEquals(1000, product.getFinalPrice(), "Undiscounted price should be the price");
+        product.applyDiscount(10);
+        long changes = product.getChangeCount();
+        product.applyDiscount(10);
+        assertAll("Change count",
+            () -> assertEquals(1, changes, "Discount change should be counted"),
+            () -> assertEquals(1, product.getChangeCount(), "Same discount should not count as a change"),
+            () -> assertEquals(900, product.getFinalPrice(), "Cached price should follow the discount"),
+            () -> assertEquals(900, product.getFinalPrice(), "Cached price should be stable")
+        );
+        product.applyDiscount(20);
+        assertAll("After change",
+            () -> assertEquals(2, product.getChangeCount()),
+            () -> assertEquals(800, product.getFinalPrice(), "Cache should be invalidated by applyDiscount")
+        );
+    }
+
+    @Test
+    @DisplayName("Test final price stays consistent under concurrent discounts")
+    void testConcurrentFinalPrice() throws InterruptedException {
+        product.applyDiscount(10);
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 10000; i++) {
+                product.applyDiscount(i % 2 == 0 ? 10 : 20);
+            }
+        });
+        writer.start();
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            double price = product.getFinalPrice();
+            consistent &= price == 900 || price == 800;
+        }
+        writer.join();
+        assertTrue(consistent, "Readers should only see final prices of applied discounts");
+        assertAll("After writer",
+            () -> assertEquals(10001, product.getChangeCount(), "Every alternating discount should be counted"),
+            () -> assertEquals(900, product.getFinalPrice(), "Last discount should win")
+        );
+    }
+
+    @Test
+    @DisplayName("Test changing the price")
+    void testSetPrice() {
+        product.applyDiscount(10);
+        product.setPrice(2000);
+        assertAll("New price",
+            () -> assertEquals(2000, product.getPrice()),
+            () -> assertEquals(1800, product.getFinalPrice(), "Cached final price should follow the new price"),
+            () -> assertEquals(2, product.getChangeCount(), "Price change should be counted"),
+            () -> assertThrows(IllegalArgumentException.class, () -> product.setPrice(-1), "Price should not be negative")
+        );
+    }
 }
@@ -3,12 +3,21 @@ package main.najah.test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import main.najah.code.Recipe;
 import main.najah.code.RecipeBook;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 class RecipeBookTest {
 
@@ -191,4 +200,230 @@ class RecipeBookTest {
         recipeBook.deleteRecipe(0); // Deleting Latte
         assertEquals(0, recipeBook.getRecipes().length, "Recipe list should be empty after deleting all recipes");
     }
+
+    @Test
+    @DisplayName("Test looking up recipe by name")
+    void testGetRecipeByName() {
+        recipeBook.addRecipe(recipe1);
+        recipeBook.addRecipe(recipe2);
+        assertAll("Lookup by name",
+            () -> assertSame(recipe2, recipeBook.getRecipe("Tea"), "Lookup should return the added recipe"),
+            () -> assertEquals(1, recipeBook.indexOf("Tea"), "Tea should keep the second slot"),
+            () -> assertNull(recipeBook.getRecipe("Mocha"), "Unknown recipe should not be found"),
+            () -> assertEquals(-1, recipeBook.indexOf("Mocha"), "Unknown recipe should have no slot")
+        );
+    }
+
+    @Test
+    @DisplayName("Test deleting recipe by name")
+    void testDeleteRecipeByName() {
+        recipeBook.addRecipe(recipe1);
+        recipeBook.addRecipe(recipe2);
+        assertEquals("Coffee", recipeBook.deleteRecipe("Coffee"), "Failed to delete recipe by name");
+        assertNull(recipeBook.getRecipe("Coffee"), "Deleted recipe should not be found");
+        assertEquals(1, recipeBook.indexOf("Tea"), "Other recipes should keep their slot");
+        assertTrue(recipeBook.addRecipe(recipe1), "Deleted recipe name should be reusable");
+    }
+
+    @Test
+    @DisplayName("Test book grows past its initial capacity")
+    void testGrowPastInitialCapacity() {
+        for (int i = 0; i < 10; i++) {
+            Recipe newRecipe = new Recipe();
+            newRecipe.setName("Recipe " + i);
+            assertTrue(recipeBook.addRecipe(newRecipe), "Failed to add recipe number " + i);
+        }
+        assertEquals(10, recipeBook.size(), "Recipe book should contain 10 recipes");
+        assertEquals(7, recipeBook.indexOf("Recipe 7"), "Slots should follow insertion order");
+    }
+
+    @Test
+    @DisplayName("Test recipe view is not affected by later changes")
+    void testRecipeListIsSnapshot() {
+        recipeBook.addRecipe(recipe1);
+        List<Recipe> view = recipeBook.getRecipeList();
+        recipeBook.addRecipe(recipe2);
+        recipeBook.deleteRecipe(0);
+        assertAll("Snapshot view",
+            () -> assertEquals(1, view.size(), "View should keep the size it was taken with"),
+            () -> assertSame(recipe1, view.get(0), "View should keep the recipe it was taken with"),
+            () -> assertThrows(UnsupportedOperationException.class, () -> view.set(0, recipe3), "View should be read-only")
+        );
+    }
+
+    @Test
+    @DisplayName("Test adding recipes in bulk")
+    void testAddRecipesInBulk() {
+        recipeBook.addRecipe(recipe1);
+        int added = recipeBook.addRecipes(Arrays.asList(recipe1, recipe2, recipe3, recipe2));
+        assertEquals(2, added, "Only new recipes should be added");
+        assertEquals(3, recipeBook.size(), "Recipe book should contain 3 recipes");
+    }
+
+    @Test
+    @DisplayName("Test persistent recipe book survives reopening")
+    void testPersistentRecipeBook(@TempDir Path directory) throws IOException {
+        RecipeBook book = RecipeBook.open(directory);
+        book.addRecipe(recipe1);
+        book.addRecipe(recipe2);
+        book.compact();
+        book.addRecipe(recipe3);
+        book.deleteRecipe("Tea");
+        book.close();
+
+        RecipeBook reopened = RecipeBook.open(directory);
+        assertAll("Reopened recipe book",
+            () -> assertEquals(2, reopened.size(), "Recipe book should contain 2 recipes"),
+            () -> assertEquals(0, reopened.indexOf("Coffee"), "Snapshot recipe should keep its slot"),
+            () -> assertEquals(2, reopened.indexOf("Latte"), "Journaled recipe should keep its slot"),
+            () -> assertNull(reopened.getRecipe("Tea"), "Deleted recipe should stay deleted")
+        );
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Test reading an earlier version")
+    void testVersionHistory() {
+        recipeBook.addRecipe(recipe1);
+        RecipeBook.Version before = recipeBook.getCurrentVersion();
+        recipeBook.addRecipe(recipe2);
+        recipeBook.deleteRecipe("Coffee");
+        RecipeBook.Version old = recipeBook.getVersion(before.getNumber());
+        assertAll("Version history",
+            () -> assertEquals(before.getNumber() + 2, recipeBook.getCurrentVersion().getNumber(), "Every change should make a new version"),
+            () -> assertSame(before, old, "Earlier version should still be kept"),
+            () -> assertSame(recipe1, old.getRecipe("Coffee"), "Earlier version should keep deleted recipe"),
+            () -> assertNull(old.getRecipe("Tea"), "Earlier version should not see later recipes"),
+            () -> assertNull(recipeBook.getRecipe("Coffee"), "Current version should not see deleted recipe"),
+            () -> assertNull(recipeBook.getVersion(before.getNumber() + 3), "Future version should not exist")
+        );
+    }
+
+    @Test
+    @DisplayName("Test history limit drops old versions")
+    void testHistoryLimit() {
+        recipeBook.setHistoryLimit(2);
+        recipeBook.addRecipe(recipe1);
+        recipeBook.addRecipe(recipe2);
+        recipeBook.addRecipe(recipe3);
+        long number = recipeBook.getCurrentVersion().getNumber();
+        assertAll("History limit",
+            () -> assertNotNull(recipeBook.getVersion(number - 1), "Previous version should be kept"),
+            () -> assertNull(recipeBook.getVersion(number - 2), "Older versions should be dropped"),
+            () -> assertFalse(recipeBook.rollback(number - 2), "Dropped version should not be restored"),
+            () -> assertThrows(IllegalArgumentException.class, () -> recipeBook.setHistoryLimit(0), "Limit must be positive")
+        );
+    }
+
+    @Test
+    @DisplayName("Test rolling back a persistent recipe book")
+    void testRollback(@TempDir Path directory) throws IOException {
+        RecipeBook book = RecipeBook.open(directory);
+        book.addRecipe(recipe1);
+        long number = book.getCurrentVersion().getNumber();
+        book.deleteRecipe("Coffee");
+        book.addRecipe(recipe2);
+        assertTrue(book.rollback(number), "Kept version should be restored");
+        assertAll("Rolled back recipe book",
+            () -> assertEquals(number + 3, book.getCurrentVersion().getNumber(), "Rollback should make a new version"),
+            () -> assertSame(recipe1, book.getRecipe("Coffee"), "Deleted recipe should be back"),
+            () -> assertNull(book.getRecipe("Tea"), "Later recipe should be gone")
+        );
+        book.close();
+
+        RecipeBook reopened = RecipeBook.open(directory);
+        assertEquals(Arrays.asList("Coffee"), Arrays.asList(Arrays.stream(reopened.getRecipes()).map(Recipe::getName).toArray()),
+            "Rollback should survive reopening");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Test writes after a torn journal tail survive reopening")
+    void testTornJournalTail(@TempDir Path directory) throws IOException {
+        RecipeBook book = RecipeBook.open(directory);
+        book.addRecipe(recipe1);
+        book.compact();
+        book.close();
+        //Simulate a crash in the middle of writing to the new segment
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> p.getFileName().toString().startsWith("journal-")).sorted()
+                .reduce((first, second) -> second).get();
+        }
+        Files.write(segment, new byte[] {0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        RecipeBook recovered = RecipeBook.open(directory);
+        assertTrue(recovered.addRecipe(recipe2), "Write after recovery should be acknowledged");
+        recovered.close();
+
+        RecipeBook reopened = RecipeBook.open(directory);
+        assertAll("Reopened after torn tail",
+            () -> assertNotNull(reopened.getRecipe("Coffee"), "Snapshot recipe should survive"),
+            () -> assertNotNull(reopened.getRecipe("Tea"), "Acknowledged write should survive")
+        );
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Test concurrent compactions lose no recipes")
+    void testConcurrentCompaction(@TempDir Path directory) throws Exception {
+        RecipeBook book = RecipeBook.open(directory);
+        Thread compactor = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                try {
+                    book.compact();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        compactor.start();
+        for (int i = 0; i < 200; i++) {
+            Recipe r = new Recipe();
+            r.setName("Recipe " + i);
+            book.addRecipe(r);
+            if (i % 20 == 0) {
+                book.compact();
+            }
+        }
+        compactor.join();
+        book.close();
+
+        RecipeBook reopened = RecipeBook.open(directory);
+        assertEquals(200, reopened.size(), "Every recipe should survive concurrent compactions");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Test a failed journal refuses writes without publishing them")
+    void testJournalFailure(@TempDir Path directory) throws IOException {
+        RecipeBook book = RecipeBook.open(directory);
+        //An interrupt closes the journal's channel in the middle of a write
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(UncheckedIOException.class, () -> book.addRecipe(recipe1), "Interrupted write should fail");
+        } finally {
+            Thread.interrupted();
+        }
+        long number = book.getCurrentVersion().getNumber();
+        assertAll("Writes after the journal failed",
+            () -> assertThrows(UncheckedIOException.class, () -> book.addRecipe(recipe2), "Write should be refused"),
+            () -> assertEquals(number, book.getCurrentVersion().getNumber(), "Refused write should not be published"),
+            () -> assertNull(book.getRecipe("Tea"), "Refused recipe should not be visible")
+        );
+        assertThrows(IOException.class, book::close, "Close should report the journal failure");
+    }
+
+    @Test
+    @DisplayName("Test a closed book refuses writes")
+    void testWriteAfterClose(@TempDir Path directory) throws IOException {
+        RecipeBook book = RecipeBook.open(directory);
+        book.addRecipe(recipe1);
+        book.close();
+        long number = book.getCurrentVersion().getNumber();
+        assertAll("Writes after close",
+            () -> assertThrows(IllegalStateException.class, () -> book.addRecipe(recipe2), "Write should be refused"),
+            () -> assertEquals(number, book.getCurrentVersion().getNumber(), "Refused write should not be published")
+        );
+    }
 }
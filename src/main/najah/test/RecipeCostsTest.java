@@ -0,0 +1,98 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Product;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeCosts;
+import main.najah.code.RecipeException;
+
+import java.util.List;
+
+class RecipeCostsTest {
+
+    Product coffee;
+    Product milk;
+    Product sugar;
+    Product chocolate;
+    Recipe mocha;
+    Recipe latte;
+    RecipeCosts costs;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        coffee = new Product("Coffee", 2);
+        milk = new Product("Milk", 0.5);
+        sugar = new Product("Sugar", 0.1);
+        chocolate = new Product("Chocolate", 1.5);
+        mocha = new Recipe();
+        mocha.setName("Mocha");
+        mocha.setAmtCoffee(3);
+        mocha.setAmtMilk(1);
+        mocha.setAmtSugar(1);
+        mocha.setAmtChocolate(2);
+        mocha.setPrice(50);
+        latte = new Recipe();
+        latte.setName("Latte");
+        latte.setAmtCoffee(3);
+        latte.setAmtMilk(3);
+        latte.setPrice(40);
+        costs = new RecipeCosts(coffee, milk, sugar, chocolate);
+        costs.addAll(List.of(mocha, latte));
+    }
+
+    @Test
+    @DisplayName("Test cost and margin from ingredient prices")
+    void testCostAndMargin() {
+        assertAll("Cost",
+            () -> assertEquals(2, costs.size(), "Both recipes should be tracked"),
+            () -> assertEquals(9.6, costs.getCost(mocha), 1e-9, "Mocha should cost 3*2 + 0.5 + 0.1 + 2*1.5"),
+            () -> assertEquals(40.4, costs.getMargin(mocha), 1e-9, "Margin should be price minus cost"),
+            () -> assertEquals(7.5, costs.getCost(latte), 1e-9),
+            () -> assertFalse(costs.add(mocha), "Tracked recipe should not be added twice"),
+            () -> assertThrows(IllegalArgumentException.class, () -> costs.getCost(new Recipe()), "Untracked recipe should be rejected")
+        );
+    }
+
+    @Test
+    @DisplayName("Test only dependent recipes are recomputed")
+    void testIncrementalRefresh() {
+        chocolate.applyDiscount(50);
+        assertEquals(1, costs.refresh(), "Only the mocha uses chocolate");
+        assertEquals(0, costs.refresh(), "Nothing changed since the last refresh");
+        coffee.setPrice(4);
+        assertAll("After price change",
+            () -> assertEquals(2, costs.refresh(), "Both recipes use coffee"),
+            () -> assertEquals(14.1, costs.getCost(mocha), 1e-9, "Mocha should follow both changes"),
+            () -> assertEquals(13.5, costs.getCost(latte), 1e-9)
+        );
+        chocolate.applyDiscount(50);
+        assertEquals(0, costs.refresh(), "Same discount should not count as a change");
+    }
+
+    @Test
+    @DisplayName("Test lookups see price changes without an explicit refresh")
+    void testLiveCost() {
+        milk.setPrice(1);
+        assertEquals(9, costs.getCost(latte), 1e-9, "Cost should be current when read");
+    }
+
+    @Test
+    @DisplayName("Test updating and removing recipes")
+    void testUpdateAndRemove() throws RecipeException {
+        latte.setAmtChocolate(1);
+        assertTrue(costs.update(latte), "Tracked recipe should be updated");
+        assertEquals(9, costs.getCost(latte), 1e-9, "New amounts should be costed");
+        chocolate.setPrice(3);
+        assertEquals(2, costs.refresh(), "Latte should now depend on chocolate");
+        assertTrue(costs.remove(latte), "Tracked recipe should be removed");
+        chocolate.setPrice(4);
+        assertAll("After remove",
+            () -> assertFalse(costs.remove(latte), "Removed recipe should not be removed twice"),
+            () -> assertFalse(costs.update(latte), "Removed recipe should not be updated"),
+            () -> assertEquals(1, costs.refresh(), "Removed recipe should not be recomputed"),
+            () -> assertEquals(1, costs.size())
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeCsv;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of RecipeCsv import and export. Tagged "benchmark" and kept
+ * out of AllTestsSuite; run this class on its own on an otherwise idle
+ * machine.
+ */
+@Tag("benchmark")
+@Execution(ExecutionMode.SAME_THREAD)
+@DisplayName("Recipe CSV Benchmarks")
+public class RecipeCsvBenchmark {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Benchmark Import and Export of a Large Catalog")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void benchmarkRoundTrip() throws IOException {
+        int rows = 200000;
+        Path file = directory.resolve("large.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("Recipe " + i + "," + (i % 500) + "," + (i % 7) + "," + (i % 5) + "," + (i % 3) + "," + (i % 2) + "\n");
+            }
+        }
+        Path exported = directory.resolve("exported.csv");
+        long importNanos = Long.MAX_VALUE;
+        long exportNanos = Long.MAX_VALUE;
+        //Best of several runs, each into a fresh book, so both are measured after JIT compilation
+        for (int run = 0; run < 5; run++) {
+            RecipeBook recipeBook = new RecipeBook();
+            long start = System.nanoTime();
+            assertEquals(rows, RecipeCsv.importRecipes(file, recipeBook).getImported(), "Every row should be imported");
+            importNanos = Math.min(importNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            assertEquals(rows, RecipeCsv.exportRecipes(recipeBook, exported), "Every recipe should be exported");
+            exportNanos = Math.min(exportNanos, System.nanoTime() - start);
+        }
+        System.out.println("Import: " + rows * 1000000000L / Math.max(importNanos, 1) + " rows/s, export: "
+            + rows * 1000000000L / Math.max(exportNanos, 1) + " rows/s");
+    }
+}
@@ -0,0 +1,96 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeCsv;
+import main.najah.code.RecipeImportReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+class RecipeCsvTest {
+
+    @TempDir
+    Path directory;
+
+    RecipeBook recipeBook;
+
+    @BeforeEach
+    void setUp() {
+        recipeBook = new RecipeBook();
+    }
+
+    @Test
+    @DisplayName("Test importing valid and invalid rows")
+    void testImportReport() throws IOException {
+        Path file = directory.resolve("recipes.csv");
+        Files.write(file, String.join("\n",
+            "Coffee,50,3,1,1,0",
+            "Latte,70,2,4,1,0\r",
+            "",
+            "Mocha,abc,2,2,1,3",
+            "Tea,10,-1,0,0,0",
+            "Broken,1,2",
+            ",1,1,1,1,1",
+            "Coffee,55,3,1,1,0",
+            "Café, au lait,60,2,3,0,0").getBytes(StandardCharsets.UTF_8));
+
+        RecipeImportReport report = RecipeCsv.importRecipes(file, recipeBook);
+        assertAll("Import report",
+            () -> assertEquals(8, report.getLines(), "Blank lines should not be counted"),
+            () -> assertEquals(3, report.getImported(), "Three rows should be imported"),
+            () -> assertEquals(1, report.getDuplicates(), "Second Coffee should be a duplicate"),
+            () -> assertEquals(4, report.getErrorCount(), "Four rows should be rejected"),
+            () -> assertEquals("Line 4: Price must be a positive integer", report.getErrors().get(0), "Bad price should be reported"),
+            () -> assertEquals("Line 5: Units of coffee must be a positive integer", report.getErrors().get(1), "Negative coffee should be reported"),
+            () -> assertEquals(4, recipeBook.getRecipe("Latte").getAmtMilk(), "Carriage return should be ignored"),
+            () -> assertEquals(60, recipeBook.getRecipe("Café, au lait").getPrice(), "Names may contain commas")
+        );
+    }
+
+    @Test
+    @DisplayName("Test export rejects line breaks after non-ASCII characters")
+    void testExportRejectsLineBreak() {
+        Recipe recipe = new Recipe();
+        recipe.setName("\u00e9\nx");
+        recipeBook.addRecipe(recipe);
+        Recipe carriageReturn = new Recipe();
+        carriageReturn.setName("Caf\u00e9\rau lait");
+        RecipeBook other = new RecipeBook();
+        other.addRecipe(carriageReturn);
+        assertAll("Line breaks",
+            () -> assertThrows(IOException.class, () -> RecipeCsv.exportRecipes(recipeBook, directory.resolve("newline.csv")),
+                "Newline after a non-ASCII character should be rejected"),
+            () -> assertThrows(IOException.class, () -> RecipeCsv.exportRecipes(other, directory.resolve("return.csv")),
+                "Carriage return after a non-ASCII character should be rejected")
+        );
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Test export and import round trip of a large catalog")
+    void testRoundTrip() throws IOException {
+        int rows = 200000;
+        Path file = directory.resolve("large.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("Recipe " + i + "," + (i % 500) + "," + (i % 7) + "," + (i % 5) + "," + (i % 3) + "," + (i % 2) + "\n");
+            }
+        }
+
+        RecipeImportReport report = RecipeCsv.importRecipes(file, recipeBook);
+        assertEquals(rows, report.getImported(), "Every row should be imported");
+
+        Path exported = directory.resolve("exported.csv");
+        assertEquals(rows, RecipeCsv.exportRecipes(recipeBook, exported), "Every recipe should be exported");
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(exported), "Export should reproduce the input");
+    }
+}
@@ -0,0 +1,92 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeBook;
+import main.najah.code.RecipeTable;
+import main.najah.code.RecipeTable.Column;
+
+class RecipeTableTest {
+
+    RecipeTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new RecipeTable();
+        table.add("Coffee", 50, 3, 1, 1, 0);
+        table.add("Latte", 70, 2, 4, 1, 0);
+        table.add("Mocha", 90, 2, 2, 1, 3);
+    }
+
+    @Test
+    @DisplayName("Test adding rows to the table")
+    void testAddRows() {
+        assertAll("Add rows",
+            () -> assertEquals(3, table.size(), "Table should contain 3 rows"),
+            () -> assertEquals(1, table.rowOf("Latte"), "Latte should be in the second row"),
+            () -> assertEquals(-1, table.add("Latte", 1, 1, 1, 1, 1), "Duplicate name should not be added"),
+            () -> assertEquals(-1, table.rowOf("Tea"), "Unknown name should have no row")
+        );
+    }
+
+    @Test
+    @DisplayName("Test negative amounts are rejected")
+    void testNegativeAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> table.add("Tea", 10, -1, 0, 0, 0),
+            "Negative amounts should be rejected");
+    }
+
+    @Test
+    @DisplayName("Test column aggregates")
+    void testAggregates() {
+        long[] totals = new long[Column.values().length];
+        table.sumAll(totals);
+        assertAll("Aggregates",
+            () -> assertEquals(210, table.sum(Column.PRICE), "Sum of prices should be 210"),
+            () -> assertEquals(50, table.min(Column.PRICE), "Cheapest recipe should cost 50"),
+            () -> assertEquals(4, table.max(Column.MILK), "Most milk should be 4"),
+            () -> assertEquals(7, totals[Column.MILK.ordinal()], "Total milk should be 7"),
+            () -> assertEquals(3, totals[Column.CHOCOLATE.ordinal()], "Total chocolate should be 3")
+        );
+    }
+
+    @Test
+    @DisplayName("Test filtering rows")
+    void testFilter() {
+        int[] rows = new int[3];
+        assertEquals(2, table.filter(Column.PRICE, 60, 100, rows), "Two recipes should cost 60 to 100");
+        assertArrayEquals(new int[] {1, 2}, new int[] {rows[0], rows[1]}, "Latte and Mocha should match");
+        assertEquals(1, table.filterMakeable(3, 3, 3, 0, rows), "Only Coffee can be made without chocolate");
+        assertEquals(0, rows[0], "Coffee should match");
+    }
+
+    @Test
+    @DisplayName("Test recipe view of a row")
+    void testRecipeView() {
+        Recipe mocha = table.get(2);
+        assertAll("Recipe view",
+            () -> assertEquals("Mocha", mocha.getName(), "Name should be copied"),
+            () -> assertEquals(90, mocha.getPrice(), "Price should be copied"),
+            () -> assertEquals(3, mocha.getAmtChocolate(), "Chocolate should be copied")
+        );
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(3), "Row past the end should be rejected");
+    }
+
+    @Test
+    @DisplayName("Test table built from a recipe book")
+    void testOfRecipeBook() {
+        RecipeBook book = new RecipeBook();
+        Recipe coffee = new Recipe();
+        coffee.setName("Coffee");
+        Recipe tea = new Recipe();
+        tea.setName("Tea");
+        book.addRecipe(coffee);
+        book.addRecipe(tea);
+        book.deleteRecipe("Coffee");
+        RecipeTable fromBook = RecipeTable.of(book);
+        assertEquals(1, fromBook.size(), "Deleted recipes should not be copied");
+        assertEquals("Tea", fromBook.getName(0), "Tea should be copied");
+    }
+}
@@ -0,0 +1,75 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeException;
+
+import java.nio.charset.StandardCharsets;
+
+class RecipeTest {
+
+    Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        recipe = new Recipe();
+    }
+
+    @Test
+    @DisplayName("Test setting amounts from text")
+    void testStringSetters() throws RecipeException {
+        recipe.setPrice("50");
+        recipe.setAmtCoffee("3");
+        recipe.setAmtMilk("+2");
+        recipe.setAmtSugar("007");
+        recipe.setAmtChocolate("-0");
+        assertAll("String setters",
+            () -> assertEquals(50, recipe.getPrice(), "Price should be 50"),
+            () -> assertEquals(3, recipe.getAmtCoffee(), "Coffee should be 3"),
+            () -> assertEquals(2, recipe.getAmtMilk(), "Milk should be 2"),
+            () -> assertEquals(7, recipe.getAmtSugar(), "Sugar should be 7"),
+            () -> assertEquals(0, recipe.getAmtChocolate(), "Chocolate should be 0")
+        );
+    }
+
+    @Test
+    @DisplayName("Test setting amounts from integers")
+    void testIntSetters() throws RecipeException {
+        recipe.setPrice(50);
+        recipe.setAmtCoffee(3);
+        assertEquals(50, recipe.getPrice(), "Price should be 50");
+        assertEquals(3, recipe.getAmtCoffee(), "Coffee should be 3");
+        RecipeException e = assertThrows(RecipeException.class, () -> recipe.setAmtMilk(-1),
+            "Negative milk should be rejected");
+        assertEquals("Units of milk must be a positive integer", e.getMessage(), "Message should match the String setter");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-1", "abc", "1.5", " 1", "2147483648", "+", "-"})
+    @DisplayName("Test rejecting invalid amounts")
+    void testInvalidAmounts(String amount) {
+        assertThrows(RecipeException.class, () -> recipe.setAmtCoffee(amount),
+            "Amount '" + amount + "' should be rejected");
+        assertTrue(Recipe.parseAmount(amount) < 0, "Parser should report '" + amount + "' as invalid");
+    }
+
+    @Test
+    @DisplayName("Test parser status codes")
+    void testParseAmount() {
+        byte[] row = "Latte,50,-3,x".getBytes(StandardCharsets.US_ASCII);
+        assertAll("Parser status codes",
+            () -> assertEquals(2147483647, Recipe.parseAmount("2147483647"), "Largest int should parse"),
+            () -> assertEquals(Recipe.NEGATIVE, Recipe.parseAmount("-5"), "Negative number should be reported"),
+            () -> assertEquals(Recipe.NOT_A_NUMBER, Recipe.parseAmount("5x"), "Text should be reported"),
+            () -> assertEquals(Recipe.NOT_A_NUMBER, Recipe.parseAmount(null), "Null should be reported"),
+            () -> assertEquals(50, Recipe.parseAmount("Latte,50,", 6, 8), "Character range should parse"),
+            () -> assertEquals(50, Recipe.parseAmount(row, 6, 8), "Byte range should parse"),
+            () -> assertEquals(Recipe.NEGATIVE, Recipe.parseAmount(row, 9, 11), "Negative byte range should be reported"),
+            () -> assertEquals(Recipe.NOT_A_NUMBER, Recipe.parseAmount(row, 12, 13), "Text byte range should be reported")
+        );
+    }
+}
@@ -0,0 +1,74 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.Recipe;
+import main.najah.code.RecipeException;
+import main.najah.code.RecipeValue;
+
+class RecipeValueTest {
+
+    RecipeValue latte;
+
+    @BeforeEach
+    void setUp() throws RecipeException {
+        latte = RecipeValue.builder().name("Latte").price(70).amtCoffee(2).amtMilk(4).amtSugar(1).build();
+    }
+
+    @Test
+    @DisplayName("Test building a recipe value")
+    void testBuild() {
+        assertAll("Built value",
+            () -> assertEquals("Latte", latte.getName(), "Name should be set"),
+            () -> assertEquals(70, latte.getPrice(), "Price should be set"),
+            () -> assertEquals(4, latte.getAmtMilk(), "Milk should be set"),
+            () -> assertEquals(0, latte.getAmtChocolate(), "Chocolate should default to 0")
+        );
+    }
+
+    @Test
+    @DisplayName("Test building with negative amount")
+    void testBuildNegativeAmount() {
+        RecipeException e = assertThrows(RecipeException.class,
+            () -> RecipeValue.builder().name("Tea").amtSugar(-1).build(), "Negative sugar should be rejected");
+        assertEquals("Units of sugar must be a positive integer", e.getMessage(), "Message should match the setter");
+    }
+
+    @Test
+    @DisplayName("Test equality covers every field")
+    void testEquality() throws RecipeException {
+        RecipeValue same = RecipeValue.builder().name("Latte").price(70).amtCoffee(2).amtMilk(4).amtSugar(1).build();
+        RecipeValue pricier = RecipeValue.builder().name("Latte").price(80).amtCoffee(2).amtMilk(4).amtSugar(1).build();
+        assertAll("Equality",
+            () -> assertEquals(latte, same, "Equal fields should give equal values"),
+            () -> assertEquals(latte.hashCode(), same.hashCode(), "Equal values should hash alike"),
+            () -> assertNotEquals(latte, pricier, "Different price should give different values")
+        );
+    }
+
+    @Test
+    @DisplayName("Test interning shares equal values")
+    void testIntern() throws RecipeException {
+        RecipeValue same = RecipeValue.builder().name("Latte").price(70).amtCoffee(2).amtMilk(4).amtSugar(1).build();
+        RecipeValue canonical = latte.intern();
+        assertSame(canonical, same.intern(), "Equal values should intern to the same instance");
+        assertSame(canonical, canonical.intern(), "Interning a canonical value should return it");
+        assertEquals(latte, canonical, "Canonical instance should equal the interned value");
+        assertSame(canonical, latte.intern(), "Interning again should return the same canonical instance");
+        RecipeValue other = RecipeValue.builder().name("Mocha").price(70).build().intern();
+        assertNotSame(canonical, other, "Different values should not be shared");
+        assertNotEquals(canonical, other, "Different interned values should not be equal");
+    }
+
+    @Test
+    @DisplayName("Test converting from and to Recipe")
+    void testRecipeConversion() throws RecipeException {
+        Recipe recipe = latte.toRecipe();
+        assertEquals("Latte", recipe.getName(), "Name should be copied");
+        assertEquals(2, recipe.getAmtCoffee(), "Coffee should be copied");
+        recipe.setAmtCoffee(5);
+        assertEquals(2, latte.getAmtCoffee(), "Value should not change with the copy");
+        assertEquals(latte, RecipeValue.of(latte.toRecipe()), "Round trip should give an equal value");
+    }
+}
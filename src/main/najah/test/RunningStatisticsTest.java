@@ -0,0 +1,73 @@
+package main.najah.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+import main.najah.code.RunningStatistics;
+
+import java.util.stream.IntStream;
+
+class RunningStatisticsTest {
+
+    RunningStatistics stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new RunningStatistics();
+    }
+
+    @Test
+    @DisplayName("Test statistics of a few values")
+    void testStatistics() {
+        stats.add(new int[] {2, 4, 4, 4, 5, 5, 7, 9}, 0, 8);
+        assertAll("Statistics",
+            () -> assertEquals(8, stats.getCount(), "Count should be 8"),
+            () -> assertEquals(40, stats.getSum(), "Sum should be 40"),
+            () -> assertEquals(2, stats.getMin(), "Min should be 2"),
+            () -> assertEquals(9, stats.getMax(), "Max should be 9"),
+            () -> assertEquals(5.0, stats.getMean(), 1e-12, "Mean should be 5"),
+            () -> assertEquals(4.0, stats.getVariance(), 1e-12, "Population variance should be 4"),
+            () -> assertEquals(32.0 / 7, stats.getSampleVariance(), 1e-12, "Sample variance should be 32/7"),
+            () -> assertEquals(2.0, stats.getStandardDeviation(), 1e-12, "Standard deviation should be 2")
+        );
+    }
+
+    @Test
+    @DisplayName("Test empty statistics")
+    void testEmpty() {
+        assertAll("Empty statistics",
+            () -> assertEquals(0, stats.getCount(), "Count should be 0"),
+            () -> assertEquals(0.0, stats.getMean(), "Mean should be 0"),
+            () -> assertEquals(0.0, stats.getVariance(), "Variance should be 0"),
+            () -> assertEquals(Long.MAX_VALUE, stats.getMin(), "Min should be the identity")
+        );
+    }
+
+    @Test
+    @DisplayName("Test merging matches a single pass")
+    void testMerge() {
+        RunningStatistics merged = IntStream.range(0, 100000).parallel()
+            .collect(RunningStatistics::new, (s, i) -> s.add(1000000000L + i % 977), RunningStatistics::merge);
+        for (int i = 0; i < 100000; i++) {
+            stats.add(1000000000L + i % 977);
+        }
+        assertAll("Merged statistics",
+            () -> assertEquals(stats.getCount(), merged.getCount(), "Counts should match"),
+            () -> assertEquals(stats.getSum(), merged.getSum(), "Sums should match"),
+            () -> assertEquals(stats.getMin(), merged.getMin(), "Mins should match"),
+            () -> assertEquals(stats.getMean(), merged.getMean(), 1e-3, "Means should match"),
+            () -> assertEquals(stats.getVariance(), merged.getVariance(), 1e-3, "Variances should match")
+        );
+    }
+
+    @Test
+    @DisplayName("Test overflow leaves the statistics unchanged")
+    void testOverflow() {
+        stats.add(Long.MAX_VALUE);
+        RunningStatistics before = stats.copy();
+        assertThrows(ArithmeticException.class, () -> stats.add(1), "Sum overflow should throw");
+        assertEquals(before.getCount(), stats.getCount(), "Count should not change");
+        stats.reset();
+        assertEquals(0, stats.getCount(), "Reset should forget every value");
+    }
+}